@@ -5,6 +5,8 @@ plugins {
     id("com.github.ben-manes.versions") version "0.53.0"
     id("org.sonarqube") version "6.3.1.5724"
     id("com.github.johnrengelman.shadow") version "8.1.1"
+    id("me.champeau.jmh") version "0.7.3"
+    id("gg.jte.gradle") version "3.2.1"
 }
 
 group = "hexlet.code"
@@ -18,6 +20,7 @@ dependencies {
     implementation("org.postgresql:postgresql:42.7.8")
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("net.jqwik:jqwik:1.8.5")
     implementation("org.jsoup:jsoup:1.21.2")
 
     implementation ("io.javalin:javalin:6.7.0")
@@ -41,6 +44,7 @@ dependencies {
     testImplementation("com.squareup.okhttp3:mockwebserver:5.3.0")
 
     implementation("com.fasterxml.jackson.core:jackson-databind:2.20.1")
+    implementation("io.micrometer:micrometer-registry-prometheus:1.15.4")
 }
 
 tasks.test {
@@ -58,6 +62,26 @@ sonar {
     }
 }
 
+jte {
+    sourceDirectory = file("src/main/resources/templates").toPath()
+    contentType = gg.jte.ContentType.Html
+    generate()
+}
+
+tasks.checkstyleMain {
+    exclude("gg/jte/generated/**")
+}
+
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
 tasks.test {
     finalizedBy(tasks.jacocoTestReport)
 }
@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Compares the platform and virtual THREAD_MODE under the same load.
+# Requires `hey` (https://github.com/rakyll/hey) and an installed distribution (make install).
+set -euo pipefail
+
+PORT="${PORT:-7071}"
+DURATION="${DURATION:-30s}"
+CONCURRENCY="${CONCURRENCY:-200}"
+SEED_URLS="${SEED_URLS:-200}"
+REPORT_DIR="build/reports/load-test"
+APP_BIN="./build/install/app/bin/app"
+
+mkdir -p "$REPORT_DIR"
+
+wait_for_app() {
+    for _ in $(seq 1 60); do
+        if curl -sf "http://localhost:$PORT/" > /dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "Application did not start on port $PORT" >&2
+    return 1
+}
+
+for mode in platform virtual; do
+    echo "== THREAD_MODE=$mode"
+    THREAD_MODE="$mode" PORT="$PORT" APP_ENV=production "$APP_BIN" > "$REPORT_DIR/app-$mode.log" 2>&1 &
+    app_pid=$!
+    trap 'kill $app_pid 2> /dev/null || true' EXIT
+
+    wait_for_app
+    for i in $(seq 1 "$SEED_URLS"); do
+        curl -s -o /dev/null -d "url=https://site-$i.example.com" "http://localhost:$PORT/urls"
+    done
+
+    hey -z "$DURATION" -c "$CONCURRENCY" "http://localhost:$PORT/urls" | tee "$REPORT_DIR/urls-$mode.txt"
+    hey -z "$DURATION" -c "$CONCURRENCY" "http://localhost:$PORT/urls/1" | tee "$REPORT_DIR/url-$mode.txt"
+
+    kill "$app_pid"
+    wait "$app_pid" 2> /dev/null || true
+    trap - EXIT
+done
+
+echo "== Summary"
+for report in "$REPORT_DIR"/*-platform.txt "$REPORT_DIR"/*-virtual.txt; do
+    printf '%s: %s\n' "$(basename "$report" .txt)" "$(grep 'Requests/sec' "$report" | tr -s ' ')"
+done
@@ -0,0 +1,82 @@
+package hexlet.code.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import hexlet.code.migration.Migrator;
+import hexlet.code.repository.BaseRepository;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+final class BenchmarkDatabase {
+    private static final int BATCH_SIZE = 1000;
+
+    private BenchmarkDatabase() {
+    }
+
+    static HikariDataSource create(int urlCount, int checksPerUrl) throws SQLException, IOException {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:h2:mem:benchmark-" + urlCount + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        hikariConfig.setMaximumPoolSize(4);
+
+        HikariDataSource dataSource = new HikariDataSource(hikariConfig);
+        Migrator.migrate(dataSource);
+        BaseRepository.setDataSource(dataSource);
+        seed(dataSource, urlCount, checksPerUrl);
+
+        return dataSource;
+    }
+
+    static String urlName(long id) {
+        return "https://site-" + id + ".example.com";
+    }
+
+    private static void seed(HikariDataSource dataSource, int urlCount, int checksPerUrl) throws SQLException {
+        Timestamp createdAt = Timestamp.from(Instant.now());
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insertUrl = connection.prepareStatement(
+                     "INSERT INTO urls (id, name, created_at) VALUES (?, ?, ?)");
+             PreparedStatement insertCheck = connection.prepareStatement("""
+                     INSERT INTO url_checks (status_code, title, h1, description, url_id, status, created_at)
+                     VALUES (200, ?, ?, ?, ?, 'FINISHED', ?)
+                     """);
+             Statement statement = connection.createStatement()) {
+
+            connection.setAutoCommit(false);
+            for (long id = 1; id <= urlCount; id++) {
+                insertUrl.setLong(1, id);
+                insertUrl.setString(2, urlName(id));
+                insertUrl.setTimestamp(3, createdAt);
+                insertUrl.addBatch();
+
+                for (int check = 0; check < checksPerUrl; check++) {
+                    insertCheck.setString(1, "Title " + id);
+                    insertCheck.setString(2, "Heading " + id);
+                    insertCheck.setString(3, "Description of site " + id);
+                    insertCheck.setLong(4, id);
+                    insertCheck.setTimestamp(5, createdAt);
+                    insertCheck.addBatch();
+                }
+
+                if (id % BATCH_SIZE == 0) {
+                    insertUrl.executeBatch();
+                    insertCheck.executeBatch();
+                }
+            }
+            insertUrl.executeBatch();
+            insertCheck.executeBatch();
+
+            statement.executeUpdate("""
+                    UPDATE urls
+                    SET last_check_id = (SELECT MAX(url_checks.id) FROM url_checks WHERE url_checks.url_id = urls.id)
+                    """);
+            connection.commit();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package hexlet.code.benchmark;
+
+import hexlet.code.check.PageContent;
+import hexlet.code.check.PageExtractor;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageExtractorBenchmark {
+    private static final long MAX_BODY_BYTES = 1024 * 1024;
+
+    @Param({"16", "256", "4096"})
+    public int pageSizeKb;
+
+    private byte[] page;
+
+    @Setup
+    public final void setUp() {
+        StringBuilder html = new StringBuilder("""
+                <!DOCTYPE html>
+                <html lang="en">
+                <head>
+                    <meta charset="utf-8">
+                    <title>Benchmark page</title>
+                    <meta name="description" content="Page used to measure extraction">
+                </head>
+                <body>
+                <h1>Benchmark <span>heading</span></h1>
+                """);
+        int paragraph = 0;
+        while (html.length() < pageSizeKb * 1024) {
+            html.append("<div class=\"item\"><p>Paragraph ").append(paragraph++)
+                    .append(" with <a href=\"/link\">a link</a> and some filler text.</p></div>\n");
+        }
+        html.append("</body>\n</html>\n");
+
+        page = html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public final PageContent streamingExtract() throws IOException {
+        return PageExtractor.extract(new ByteArrayInputStream(page), StandardCharsets.UTF_8, MAX_BODY_BYTES);
+    }
+
+    @Benchmark
+    public final String[] fullDocumentParse() {
+        Document document = Jsoup.parse(new String(page, StandardCharsets.UTF_8));
+        return new String[] {
+            document.title(),
+            document.selectFirst("h1").text(),
+            document.selectFirst("meta[name=description]").attr("content")
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package hexlet.code.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import hexlet.code.cache.Caches;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlsRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryBenchmark {
+    private static final int CHECKS_PER_URL = 3;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100", "10000"})
+    public int urlCount;
+
+    private HikariDataSource dataSource;
+    private List<Long> pageIds;
+
+    @Setup(Level.Trial)
+    public final void setUp() throws SQLException, IOException {
+        dataSource = BenchmarkDatabase.create(urlCount, CHECKS_PER_URL);
+        pageIds = LongStream.rangeClosed(1, Math.min(PAGE_SIZE, urlCount))
+                .boxed()
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public final void tearDown() {
+        Caches.URLS.invalidateAll();
+        Caches.URL_CHECKS.invalidateAll();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public final List<Url> getEntities() throws SQLException {
+        return UrlsRepository.getEntities();
+    }
+
+    @Benchmark
+    public final Optional<Url> findCached() throws SQLException {
+        return UrlsRepository.find(randomId());
+    }
+
+    @Benchmark
+    public final Optional<Url> findUncached() throws SQLException {
+        long id = randomId();
+        Caches.URLS.invalidate(id);
+        return UrlsRepository.find(id);
+    }
+
+    @Benchmark
+    public final boolean existsByName() throws SQLException {
+        return UrlsRepository.existsByName(BenchmarkDatabase.urlName(randomId()));
+    }
+
+    @Benchmark
+    public final Map<Long, UrlCheck> getLastUrlsChecks() throws SQLException {
+        return UrlChecksRepository.getLastUrlsChecks(pageIds);
+    }
+
+    @Benchmark
+    public final List<UrlCheck> findChecksByUrlIdCached() throws SQLException {
+        return UrlChecksRepository.findChecksByUrlId(randomId());
+    }
+
+    @Benchmark
+    public final List<UrlCheck> findChecksByUrlIdUncached() throws SQLException {
+        long id = randomId();
+        Caches.URL_CHECKS.invalidate(id);
+        return UrlChecksRepository.findChecksByUrlId(id);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, urlCount + 1);
+    }
+}
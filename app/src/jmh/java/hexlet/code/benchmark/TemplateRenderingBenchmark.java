@@ -0,0 +1,63 @@
+package hexlet.code.benchmark;
+
+import gg.jte.TemplateEngine;
+import gg.jte.output.StringOutput;
+import hexlet.code.App;
+import hexlet.code.dto.urls.UrlsPage;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateRenderingBenchmark {
+    @Param({"20", "100"})
+    public int perPage;
+
+    private TemplateEngine templateEngine;
+    private UrlsPage page;
+
+    @Setup
+    public final void setUp() {
+        templateEngine = App.createTemplateEngine();
+
+        List<Url> urls = new ArrayList<>();
+        Map<Long, UrlCheck> lastUrlsChecks = new HashMap<>();
+        for (long id = perPage; id > 0; id--) {
+            Url url = new Url(BenchmarkDatabase.urlName(id));
+            url.setId(id);
+            url.setCreatedAt(Instant.now());
+            urls.add(url);
+
+            UrlCheck urlCheck = new UrlCheck(id);
+            urlCheck.setId(id);
+            urlCheck.setStatusCode(200);
+            urlCheck.setCreatedAt(Instant.now());
+            lastUrlsChecks.put(id, urlCheck);
+        }
+
+        page = new UrlsPage(urls, lastUrlsChecks, null, null, 1L, perPage);
+    }
+
+    @Benchmark
+    public final String renderUrlsIndex() {
+        StringOutput output = new StringOutput();
+        templateEngine.render("urls/index.jte", Map.of("page", page), output);
+        return output.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package hexlet.code.benchmark;
+
+import hexlet.code.util.UrlNormalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UrlNormalizerBenchmark {
+    @Param({"valid", "invalid"})
+    public String input;
+
+    private String url;
+
+    @Setup
+    public final void setUp() {
+        url = "valid".equals(input)
+                ? "  HTTPS://Ru.Hexlet.io:8443/courses/java?utm_source=benchmark  "
+                : "https://ru.hexlet.io/some path with spaces";
+    }
+
+    @Benchmark
+    public final Optional<String> normalizer() {
+        return UrlNormalizer.normalize(url);
+    }
+
+    @Benchmark
+    public final Optional<String> uriToUrl() {
+        return legacyNormalize(url);
+    }
+
+    // the implementation UrlNormalizer replaced, kept here as the baseline
+    private static Optional<String> legacyNormalize(String value) {
+        try {
+            URL parsedUrl = URI.create(value.trim().toLowerCase()).toURL();
+            String port = parsedUrl.getPort() != -1
+                    ? String.format(":%d", parsedUrl.getPort())
+                        .toLowerCase()
+                    : "";
+
+            return Optional.of(String.format("%s://%s%s", parsedUrl.getProtocol(), parsedUrl.getHost(), port));
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
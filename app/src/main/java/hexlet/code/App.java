@@ -4,94 +4,159 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import gg.jte.ContentType;
 import gg.jte.TemplateEngine;
+import gg.jte.resolve.DirectoryCodeResolver;
 import gg.jte.resolve.ResourceCodeResolver;
+import hexlet.code.check.CheckFetcher;
+import hexlet.code.check.CheckJobQueue;
+import hexlet.code.check.RecheckScheduler;
 import hexlet.code.controller.RootController;
+import hexlet.code.controller.StatsController;
 import hexlet.code.controller.UrlsController;
+import hexlet.code.controller.UrlsExportController;
+import hexlet.code.controller.api.UrlsApiController;
+import hexlet.code.controller.api.UrlsImportController;
 import hexlet.code.controller.urls.UrlChecksController;
 import hexlet.code.dto.ErrorPage;
+import hexlet.code.dto.api.ErrorResponse;
+import hexlet.code.metrics.AppMetrics;
+import hexlet.code.migration.Migrator;
 import hexlet.code.repository.BaseRepository;
+import hexlet.code.repository.DatabasePool;
+import hexlet.code.repository.UrlChecksWriteBehind;
+import hexlet.code.retention.CheckRetentionJob;
+import hexlet.code.util.Env;
 import hexlet.code.util.NamedRoutes;
+import hexlet.code.util.ThreadMode;
 import io.javalin.Javalin;
+import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
 import io.javalin.http.NotFoundResponse;
 import io.javalin.rendering.template.JavalinJte;
+import io.javalin.validation.ValidationException;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.sql.Connection;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 import static io.javalin.rendering.template.TemplateUtil.model;
 
 @Slf4j
 public class App {
-    private record ErrorResponse(String error, String message) { };
-
     private static final String DEFAULT_PORT = "7070";
     private static final String DEFAULT_DATABASE_URL = "jdbc:h2:mem:project";
     private static final String DEFAULT_APP_ENV = "development";
+    private static final String TEMPLATES_SOURCE_DIRECTORY = "src/main/resources/templates";
+    private static final int DEFAULT_DB_POOL_SIZE = 10;
+    private static final int DEFAULT_VIRTUAL_THREADS_DB_POOL_SIZE = 50;
+
+    @Getter
+    private static TemplateEngine templateEngine;
 
     public static void main(String[] args) throws IOException, SQLException {
         log.info("Starting application...");
         setupAppEnviroment();
         Javalin app = getApp();
+        RecheckScheduler.start();
+        CheckRetentionJob.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(App::shutdown));
 
         app.start(getPort());
-        log.info("Application started with APP_ENV: {}, port: {}", getAppEnv(), getPort());
+        log.info("Application started with APP_ENV: {}, port: {}, THREAD_MODE: {}",
+                getAppEnv(), getPort(), ThreadMode.getMode());
     }
 
     public static Javalin getApp(boolean isTest) throws IOException, SQLException {
         configureDatabaseConnection(isTest);
+        UrlChecksWriteBehind.start();
+        CheckJobQueue.start();
+        AppMetrics.registerGauges();
+        templateEngine = createTemplateEngine();
 
         Javalin app = Javalin.create(config -> {
+            config.useVirtualThreads = ThreadMode.isVirtual();
             config.bundledPlugins.enableDevLogging();
-            config.fileRenderer(new JavalinJte(createTemplateEngine()));
+            config.requestLogger.http(AppMetrics::recordRequest);
+            config.fileRenderer(new JavalinJte(templateEngine));
         });
 
         app.exception(Exception.class, (e, ctx) -> {
-            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR);
-            ErrorPage page = new ErrorPage(String.valueOf(HttpStatus.INTERNAL_SERVER_ERROR), e.getMessage());
-            ctx.render("error.jte", model("page", page));
+            renderError(ctx, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
             log.error("Internal server error: ", e);
         });
 
         app.exception(IllegalArgumentException.class, (e, ctx) -> {
-            ctx.status(HttpStatus.BAD_REQUEST);
-            ErrorPage page = new ErrorPage(String.valueOf(HttpStatus.BAD_REQUEST), e.getMessage());
-            ctx.render("error.jte", model("page", page));
+            renderError(ctx, HttpStatus.BAD_REQUEST, e.getMessage());
             log.error("Bad request: ", e);
         });
 
+        app.exception(ValidationException.class, (e, ctx) -> {
+            String message = "Invalid parameters: " + String.join(", ", e.getErrors().keySet());
+            renderError(ctx, HttpStatus.BAD_REQUEST, message);
+            log.error("Validation failed: {}", e.getErrors());
+        });
+
         app.exception(NotFoundResponse.class, (e, ctx) -> {
-            ctx.status(HttpStatus.NOT_FOUND);
-            ErrorPage page = new ErrorPage(String.valueOf(HttpStatus.NOT_FOUND), e.getMessage());
-            ctx.render("error.jte", model("page", page));
+            renderError(ctx, HttpStatus.NOT_FOUND, e.getMessage());
             log.error("Not found: ", e);
         });
 
         app.exception(SQLException.class, (e, ctx) -> {
-            ctx.status(HttpStatus.INTERNAL_SERVER_ERROR);
-            ErrorPage page = new ErrorPage(String.valueOf(HttpStatus.INTERNAL_SERVER_ERROR), e.getMessage());
-            ctx.render("error.jte", model("page", page));
+            renderError(ctx, HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
             log.error("Database error: ", e);
         });
 
         app.get(NamedRoutes.rootPath(), RootController::root);
         app.post(NamedRoutes.urlsPath(), UrlsController::createUrl);
         app.get(NamedRoutes.urlsPath(), UrlsController::index);
+        app.post(NamedRoutes.urlsChecksPath(), UrlChecksController::createAll);
+        app.get(NamedRoutes.urlsChecksProgressPath(), UrlChecksController::showBulkProgress);
+        app.get(NamedRoutes.urlsExportPath(), UrlsExportController::export);
         app.get(NamedRoutes.urlPath("{id}"), UrlsController::show);
         app.post(NamedRoutes.urlCheckPath("{id}"), UrlChecksController::create);
+        app.get(NamedRoutes.cacheStatsPath(), StatsController::caches);
+        app.get(NamedRoutes.metricsPath(), StatsController::metrics);
+
+        app.post(NamedRoutes.apiUrlsPath(), UrlsApiController::create);
+        app.get(NamedRoutes.apiUrlsPath(), UrlsApiController::index);
+        app.post(NamedRoutes.apiUrlsImportPath(), UrlsImportController::importUrls);
+        app.get(NamedRoutes.apiUrlPath("{id}"), UrlsApiController::show);
+        app.get(NamedRoutes.apiUrlChecksPath("{id}"), UrlsApiController::checks);
+        app.post(NamedRoutes.apiUrlChecksPath("{id}"), UrlsApiController::createCheck);
 
         return app;
     }
 
+    private static void renderError(Context ctx, HttpStatus status, String message) {
+        ctx.status(status);
+
+        if (ctx.path().startsWith(NamedRoutes.apiPath())) {
+            ctx.json(new ErrorResponse(status.getMessage(), message));
+            return;
+        }
+
+        ErrorPage page = new ErrorPage(String.valueOf(status), message);
+        ctx.render("error.jte", model("page", page));
+    }
+
     public static Javalin getApp() throws SQLException, IOException {
         return getApp(false);
     }
 
+    public static void shutdown() {
+        log.info("Shutting down application...");
+        RecheckScheduler.shutdown();
+        CheckRetentionJob.shutdown();
+        CheckJobQueue.shutdown();
+        UrlChecksWriteBehind.shutdown();
+        CheckFetcher.shutdown();
+        DatabasePool.close(BaseRepository.getDataSource());
+    }
+
 
     public static int getPort() {
         String port = System.getenv().getOrDefault("PORT", DEFAULT_PORT);
@@ -102,6 +167,11 @@ public class App {
         return System.getenv().getOrDefault("JDBC_DATABASE_URL", DEFAULT_DATABASE_URL);
     }
 
+    public static int getDatabasePoolSize() {
+        int defaultPoolSize = ThreadMode.isVirtual() ? DEFAULT_VIRTUAL_THREADS_DB_POOL_SIZE : DEFAULT_DB_POOL_SIZE;
+        return Env.getInt("DB_POOL_SIZE", defaultPoolSize);
+    }
+
     public static String getAppEnv() {
         return System.getenv().getOrDefault("APP_ENV", DEFAULT_APP_ENV);
     }
@@ -112,6 +182,17 @@ public class App {
     }
 
     public static TemplateEngine createTemplateEngine() {
+        if (!DEFAULT_APP_ENV.equals(getAppEnv())) {
+            log.info("Using precompiled templates");
+            return TemplateEngine.createPrecompiled(ContentType.Html);
+        }
+
+        Path templatesDirectory = Path.of(TEMPLATES_SOURCE_DIRECTORY);
+        if (Files.isDirectory(templatesDirectory)) {
+            log.info("Compiling templates from {} with hot reload", templatesDirectory.toAbsolutePath());
+            return TemplateEngine.create(new DirectoryCodeResolver(templatesDirectory), ContentType.Html);
+        }
+
         ClassLoader classLoader = App.class.getClassLoader();
         ResourceCodeResolver codeResolver = new ResourceCodeResolver("templates", classLoader);
 
@@ -129,26 +210,21 @@ public class App {
     }
 
     public static void initializeDatabase(HikariDataSource dataSource) throws SQLException, IOException {
-        try (Connection connection = dataSource.getConnection();
-            Statement statement = connection.createStatement()) {
-
-            String sql = readResourceFile("schema.sql");
-            statement.execute(sql);
-
-            log.info("Database initialized");
-        } catch (IOException e) {
-            log.error("Failed to read schema.sql: {}", e.getMessage(), e);
-        }
+        Migrator.migrate(dataSource);
+        log.info("Database initialized");
     }
 
     public static void configureDatabaseConnection(boolean isTest) throws SQLException, IOException {
         log.info("Configuring database connection");
-        HikariConfig hikariConfig =  new HikariConfig();
         String databaseUrl = isTest ? DEFAULT_DATABASE_URL : getDatabaseUrl();
-        hikariConfig.setJdbcUrl(databaseUrl);
+        HikariConfig hikariConfig = DatabasePool.createConfig(databaseUrl, getDatabasePoolSize());
+        hikariConfig.setMetricRegistry(AppMetrics.getRegistry());
 
         HikariDataSource dataSource = new HikariDataSource(hikariConfig);
         initializeDatabase(dataSource);
+        if (Env.getBoolean("DB_WARM_UP", true)) {
+            DatabasePool.warmUp(dataSource);
+        }
 
         BaseRepository.setDataSource(dataSource);
     }
@@ -0,0 +1,113 @@
+package hexlet.code.cache;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+public final class BoundedCache<K, V> {
+    private record Entry<V>(V value, long expiresAtNanos) { }
+
+    @Getter
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    // values are copied in and out, so a caller changing its instance never changes what others get
+    public BoundedCache(String name, int maxSize, Duration ttl, UnaryOperator<V> copier) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evict = size() > BoundedCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    public Optional<V> get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+
+            if (entry == null) {
+                misses.increment();
+                return Optional.empty();
+            }
+
+            if (entry.expiresAtNanos() - System.nanoTime() <= 0) {
+                entries.remove(key);
+                expirations.increment();
+                misses.increment();
+                return Optional.empty();
+            }
+
+            hits.increment();
+            return Optional.of(copier.apply(entry.value()));
+        }
+    }
+
+    // taken before the value is loaded, a later invalidation makes put drop the value as it may be stale
+    public long getGeneration() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    public boolean put(K key, V value, long loadedAtGeneration) {
+        V copy = copier.apply(value);
+
+        synchronized (entries) {
+            if (loadedAtGeneration != generation) {
+                return false;
+            }
+
+            entries.put(key, new Entry<>(copy, System.nanoTime() + ttlNanos));
+            return true;
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            generation++;
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        double hitRate = hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount);
+
+        return new CacheStats(name, size, maxSize, hitCount, missCount, evictions.sum(), expirations.sum(), hitRate);
+    }
+}
@@ -0,0 +1,13 @@
+package hexlet.code.cache;
+
+public record CacheStats(
+        String name,
+        int size,
+        int maxSize,
+        long hits,
+        long misses,
+        long evictions,
+        long expirations,
+        double hitRate
+) {
+}
@@ -0,0 +1,27 @@
+package hexlet.code.cache;
+
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.util.Env;
+
+import java.time.Duration;
+import java.util.List;
+
+public class Caches {
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+    private static final long DEFAULT_TTL_SECONDS = 60;
+
+    public static final BoundedCache<Long, Url> URLS = new BoundedCache<>("urls",
+            Env.getInt("CACHE_MAX_SIZE", DEFAULT_MAX_SIZE),
+            Duration.ofSeconds(Env.getLong("CACHE_TTL_SECONDS", DEFAULT_TTL_SECONDS)),
+            Url::new);
+
+    public static final BoundedCache<Long, List<UrlCheck>> URL_CHECKS = new BoundedCache<>("url_checks",
+            Env.getInt("CACHE_MAX_SIZE", DEFAULT_MAX_SIZE),
+            Duration.ofSeconds(Env.getLong("CACHE_TTL_SECONDS", DEFAULT_TTL_SECONDS)),
+            urlChecks -> urlChecks.stream().map(UrlCheck::new).toList());
+
+    public static List<CacheStats> getStats() {
+        return List.of(URLS.getStats(), URL_CHECKS.getStats());
+    }
+}
@@ -0,0 +1,21 @@
+package hexlet.code.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DataVersion {
+    // a restart forgets the counter, so the boot id keeps tags from before the restart from matching
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    public static void bump() {
+        VERSION.incrementAndGet();
+    }
+
+    public static long get() {
+        return VERSION.get();
+    }
+
+    public static String etag(String scope) {
+        return String.format("\"%s-%s-%d\"", BOOT_ID, scope, VERSION.get());
+    }
+}
@@ -0,0 +1,266 @@
+package hexlet.code.check;
+
+import hexlet.code.dto.urls.BulkCheckProgress;
+import hexlet.code.metrics.AppMetrics;
+import hexlet.code.model.CheckStatus;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlChecksWriteBehind;
+import hexlet.code.repository.UrlsRepository;
+import hexlet.code.util.Env;
+import hexlet.code.util.ThreadMode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+public final class BulkCheckJob implements Runnable {
+    private static final int DEFAULT_CONCURRENCY = 64;
+    private static final int DEFAULT_PER_HOST_CONCURRENCY = 2;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int MAX_PENDING_CHECKS = 10_000;
+    private static final int MAX_DEFERRALS = 3;
+    private static final Duration RESULTS_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String RUNNING_STATE = "running";
+    private static final String FINISHED_STATE = "finished";
+    private static final String FAILED_STATE = "failed";
+
+    private static final AtomicReference<BulkCheckJob> CURRENT_JOB = new AtomicReference<>();
+
+    private final int concurrency = Env.getInt("BULK_CHECK_CONCURRENCY", DEFAULT_CONCURRENCY);
+    private final int perHostConcurrency = Env.getInt("BULK_CHECK_PER_HOST_CONCURRENCY", DEFAULT_PER_HOST_CONCURRENCY);
+    private final int batchSize = Env.getInt("BULK_CHECK_BATCH_SIZE", DEFAULT_BATCH_SIZE);
+
+    private final Semaphore globalPermits = new Semaphore(concurrency);
+    private final Semaphore pendingPermits = new Semaphore(MAX_PENDING_CHECKS);
+    private final ConcurrentHashMap<String, HostQueue> hostQueues = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private ScheduledExecutorService deferredChecks;
+
+    private final AtomicLong done = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long total;
+    private volatile String state = RUNNING_STATE;
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+
+    // URLs of a host at its concurrency limit wait here and are run by that host's busy workers,
+    // so the dispatcher keeps starting checks of other hosts
+    private static final class HostQueue {
+        private final Queue<Runnable> deferred = new ArrayDeque<>();
+        private int active;
+    }
+
+    public static synchronized Optional<BulkCheckProgress> start() {
+        BulkCheckJob currentJob = CURRENT_JOB.get();
+        if (currentJob != null && RUNNING_STATE.equals(currentJob.state)) {
+            log.info("Bulk check is already running");
+            return Optional.empty();
+        }
+
+        BulkCheckJob job = new BulkCheckJob();
+        CURRENT_JOB.set(job);
+        Thread.ofPlatform()
+                .name("bulk-check-dispatcher")
+                .daemon(true)
+                .start(job);
+
+        return Optional.of(job.getProgress());
+    }
+
+    public static Optional<BulkCheckProgress> getCurrentProgress() {
+        return Optional.ofNullable(CURRENT_JOB.get())
+                .map(BulkCheckJob::getProgress);
+    }
+
+    @Override
+    public void run() {
+        log.info("Starting bulk check, concurrency: {}, per host: {}, threads: {}",
+                concurrency, perHostConcurrency, ThreadMode.getMode());
+        executor = Executors.newFixedThreadPool(concurrency, ThreadMode.createThreadFactory("bulk-check-worker-"));
+        deferredChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("bulk-check-deferred")
+                .daemon(true)
+                .factory());
+
+        try {
+            total = UrlsRepository.count();
+
+            long lastId = 0;
+            List<Url> batch = UrlsRepository.findBatchAfter(lastId, batchSize);
+            while (!batch.isEmpty()) {
+                List<Long> urlIds = batch.stream()
+                        .map(Url::getId)
+                        .toList();
+                Map<Long, UrlCheck> lastChecks = UrlChecksRepository.getLastUrlsChecks(urlIds);
+                for (Url url : batch) {
+                    dispatch(url, lastChecks.get(url.getId()));
+                }
+                lastId = batch.getLast().getId();
+                batch = UrlsRepository.findBatchAfter(lastId, batchSize);
+            }
+
+            pendingPermits.acquire(MAX_PENDING_CHECKS);
+            // results go through the write-behind buffer, the run only counts as finished once they are stored
+            if (!UrlChecksWriteBehind.awaitFlushed(UrlChecksWriteBehind.getAcceptedCount(), RESULTS_TIMEOUT)) {
+                log.warn("Bulk check results were not stored within {} s", RESULTS_TIMEOUT.toSeconds());
+            }
+            state = FINISHED_STATE;
+        } catch (SQLException e) {
+            log.error("Bulk check failed: {}", e.getMessage(), e);
+            state = FAILED_STATE;
+        } catch (InterruptedException e) {
+            log.warn("Bulk check interrupted");
+            state = FAILED_STATE;
+            Thread.currentThread().interrupt();
+        } finally {
+            deferredChecks.shutdownNow();
+            executor.shutdown();
+            hostQueues.clear();
+            finishedAt = Instant.now();
+            log.info("Bulk check {}: {} done, {} failed of {}", state, done.get(), failed.get(), total);
+        }
+    }
+
+    private void dispatch(Url url, UrlCheck previousCheck) throws InterruptedException {
+        pendingPermits.acquire();
+        HostQueue hostQueue = hostQueues.computeIfAbsent(getHost(url), host -> new HostQueue());
+        submit(hostQueue, () -> check(hostQueue, url, previousCheck, 0));
+    }
+
+    // every submitted task holds a pending permit, it is released once the check is stored
+    private void submit(HostQueue hostQueue, Runnable task) throws InterruptedException {
+        boolean startNow;
+        synchronized (hostQueue) {
+            startNow = hostQueue.active < perHostConcurrency;
+            if (startNow) {
+                hostQueue.active++;
+            } else {
+                hostQueue.deferred.add(task);
+            }
+        }
+
+        if (startNow) {
+            globalPermits.acquire();
+            try {
+                executor.execute(() -> runHostChecks(hostQueue, task));
+            } catch (RejectedExecutionException e) {
+                globalPermits.release();
+                synchronized (hostQueue) {
+                    hostQueue.active--;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void runHostChecks(HostQueue hostQueue, Runnable firstTask) {
+        try {
+            Runnable task = firstTask;
+            while (task != null) {
+                task.run();
+
+                synchronized (hostQueue) {
+                    task = hostQueue.deferred.poll();
+                    if (task == null) {
+                        hostQueue.active--;
+                    }
+                }
+            }
+        } finally {
+            globalPermits.release();
+        }
+    }
+
+    private void check(HostQueue hostQueue, Url url, UrlCheck previousCheck, int deferrals) {
+        UrlCheck urlCheck;
+        try {
+            urlCheck = UrlChecker.fetch(url, previousCheck);
+            done.incrementAndGet();
+        } catch (HostBusyException e) {
+            if (deferrals < MAX_DEFERRALS && defer(hostQueue, url, previousCheck, deferrals + 1, e.getDelay())) {
+                return;
+            }
+
+            log.debug("Bulk check failed for URL {}, host stayed busy: {}", url.getName(), e.getMessage());
+            AppMetrics.recordCheckFailure(e);
+            urlCheck = new UrlCheck(url.getId());
+            urlCheck.setStatus(CheckStatus.FAILED);
+            failed.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.debug("Bulk check failed for URL {}: {}", url.getName(), e.getMessage());
+            AppMetrics.recordCheckFailure(e);
+            urlCheck = new UrlCheck(url.getId());
+            urlCheck.setStatus(CheckStatus.FAILED);
+            failed.incrementAndGet();
+        }
+
+        UrlChecksWriteBehind.write(urlCheck);
+        pendingPermits.release();
+    }
+
+    // the check goes back to its host queue once the host is available, keeping its pending permit until then
+    private boolean defer(HostQueue hostQueue, Url url, UrlCheck previousCheck, int deferrals, Duration delay) {
+        log.debug("Bulk check of URL {} deferred by {} ms", url.getName(), delay.toMillis());
+        try {
+            deferredChecks.schedule(() -> resubmit(hostQueue, url, previousCheck, deferrals),
+                    delay.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void resubmit(HostQueue hostQueue, Url url, UrlCheck previousCheck, int deferrals) {
+        try {
+            submit(hostQueue, () -> check(hostQueue, url, previousCheck, deferrals));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendingPermits.release();
+        } catch (RejectedExecutionException e) {
+            log.warn("Bulk check is stopping, dropping deferred check of URL {}", url.getName());
+            pendingPermits.release();
+        }
+    }
+
+    private BulkCheckProgress getProgress() {
+        long doneCount = done.get();
+        long failedCount = failed.get();
+        long remaining = Math.max(total - doneCount - failedCount, 0);
+
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double elapsedSeconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+        double checksPerSecond = (doneCount + failedCount) / elapsedSeconds;
+
+        return new BulkCheckProgress(state, total, doneCount, failedCount, remaining, startedAt.toString(),
+                finishedAt != null ? finishedAt.toString() : null, checksPerSecond);
+    }
+
+    private static String getHost(Url url) {
+        try {
+            String host = URI.create(url.getName()).getHost();
+            return host != null ? host : url.getName();
+        } catch (IllegalArgumentException e) {
+            return url.getName();
+        }
+    }
+}
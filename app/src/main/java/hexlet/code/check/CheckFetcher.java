@@ -0,0 +1,388 @@
+package hexlet.code.check;
+
+import hexlet.code.metrics.AppMetrics;
+import hexlet.code.util.Env;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import io.micrometer.core.instrument.Timer;
+import kong.unirest.core.GetRequest;
+import kong.unirest.core.HttpResponse;
+import kong.unirest.core.RawResponse;
+import kong.unirest.core.Unirest;
+import kong.unirest.core.UnirestException;
+import kong.unirest.core.UnirestInstance;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+public class CheckFetcher {
+    private static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 5_000;
+    private static final int DEFAULT_REQUEST_TIMEOUT_MILLIS = 10_000;
+    private static final long DEFAULT_TOTAL_TIMEOUT_MILLIS = 30_000;
+    private static final int DEFAULT_MAX_REDIRECTS = 5;
+    private static final long DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
+    private static final int DEFAULT_POOL_SIZE = 0;
+    private static final int DEFAULT_KEEP_ALIVE_SECONDS = 30;
+    private static final long DEFAULT_MAX_RETRY_AFTER_SECONDS = 3600;
+    private static final int MAX_ROBOTS_BYTES = 64 * 1024;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = Env.getInt("CHECK_CONNECT_TIMEOUT_MILLIS",
+            DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    private static final int REQUEST_TIMEOUT_MILLIS = Env.getInt("CHECK_REQUEST_TIMEOUT_MILLIS",
+            DEFAULT_REQUEST_TIMEOUT_MILLIS);
+    private static final Duration TOTAL_TIMEOUT = Duration.ofMillis(Env.getLong("CHECK_TOTAL_TIMEOUT_MILLIS",
+            DEFAULT_TOTAL_TIMEOUT_MILLIS));
+    private static final int MAX_REDIRECTS = Env.getInt("CHECK_MAX_REDIRECTS", DEFAULT_MAX_REDIRECTS);
+    private static final long MAX_BODY_BYTES = Env.getLong("CHECK_MAX_BODY_BYTES", DEFAULT_MAX_BODY_BYTES);
+    private static final long MAX_RETRY_AFTER_SECONDS = Env.getLong("CHECK_MAX_RETRY_AFTER_SECONDS",
+            DEFAULT_MAX_RETRY_AFTER_SECONDS);
+    private static final boolean ROBOTS_CRAWL_DELAY = Env.getBoolean("CHECK_ROBOTS_CRAWL_DELAY", false);
+
+    private static final Set<Integer> REDIRECT_CODES = Set.of(301, 302, 303, 307, 308);
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final Set<Integer> THROTTLED_CODES = Set.of(429, 503);
+    private static final Pattern CHARSET_PATTERN = Pattern.compile("charset=\"?([^\\s;\"]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern USER_AGENT_PATTERN = Pattern.compile("^\\s*user-agent\\s*:\\s*(\\S*)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern CRAWL_DELAY_PATTERN = Pattern.compile("^\\s*crawl-delay\\s*:\\s*([0-9.]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final UnirestInstance CLIENT = createClient();
+    private static final HostRateLimiter RATE_LIMITER = HostRateLimiter.fromEnv();
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform()
+                    .name("check-deadline")
+                    .daemon(true)
+                    .factory());
+
+    public static FetchResult fetch(String url, Map<String, String> headers) {
+        return fetch(url, headers, TOTAL_TIMEOUT);
+    }
+
+    // the timeout covers the whole check: redirects, waiting for the host and reading every body
+    public static FetchResult fetch(String url, Map<String, String> headers, Duration timeout) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + timeout.toNanos();
+        long firstByteNanos = 0;
+        long bodyNanos = 0;
+        String currentUrl = url;
+        int redirects = 0;
+        boolean retried = false;
+
+        while (true) {
+            checkDeadline(url, deadline, timeout);
+            String host = getHost(currentUrl);
+            applyCrawlDelay(currentUrl, host);
+            RATE_LIMITER.acquire(host);
+
+            GetRequest request = CLIENT.get(currentUrl).headers(headers);
+            AtomicLong headersReceivedAt = new AtomicLong();
+            long requestStartedAt = System.nanoTime();
+
+            HttpResponse<PageContent> response = request.asObject(rawResponse -> {
+                headersReceivedAt.set(System.nanoTime());
+                return readContent(rawResponse, deadline);
+            });
+            checkDeadline(url, deadline, timeout);
+
+            long finishedAt = System.nanoTime();
+            firstByteNanos += headersReceivedAt.get() - requestStartedAt;
+            bodyNanos += finishedAt - headersReceivedAt.get();
+
+            Duration retryAfter = getRetryAfter(response);
+            if (retryAfter != null) {
+                RATE_LIMITER.pause(host, retryAfter);
+                if (!retried && RATE_LIMITER.isWithinMaxWait(retryAfter)) {
+                    log.info("{} answered {}, retrying after {} s", currentUrl, response.getStatus(),
+                            retryAfter.toSeconds());
+                    retried = true;
+                    continue;
+                }
+                if (!retried) {
+                    throw new HostBusyException(host, retryAfter);
+                }
+            }
+
+            String location = response.getHeaders().getFirst(Header.LOCATION);
+            if (!REDIRECT_CODES.contains(response.getStatus()) || location == null || location.isBlank()) {
+                FetchTimings timings = new FetchTimings(
+                        TimeUnit.NANOSECONDS.toMillis(firstByteNanos),
+                        TimeUnit.NANOSECONDS.toMillis(bodyNanos),
+                        TimeUnit.NANOSECONDS.toMillis(finishedAt - startedAt),
+                        redirects
+                );
+                // the JDK client does not expose its lookup and connect times, so they are part of the first byte
+                log.info("Fetched {} with status {} in {} ms (dns + connect + first byte: {} ms, body: {} ms, "
+                        + "redirects: {})", url, response.getStatus(), timings.totalMillis(),
+                        timings.firstByteMillis(), timings.bodyMillis(), redirects);
+
+                FetchResult result = new FetchResult(response.getStatus(), response.getHeaders(), response.getBody(),
+                        timings);
+                AppMetrics.recordFetch(result);
+                return result;
+            }
+
+            if (redirects >= MAX_REDIRECTS) {
+                throw new IllegalStateException("Too many redirects for URL: " + url);
+            }
+
+            currentUrl = resolveRedirect(currentUrl, location);
+            redirects++;
+            log.debug("Following redirect from {} to {}", url, currentUrl);
+        }
+    }
+
+    public static void shutdown() {
+        CLIENT.close();
+    }
+
+    private static UnirestInstance createClient() {
+        // the JDK client reads its pool settings from system properties when the first client is created
+        setDefaultProperty("jdk.httpclient.connectionPoolSize", Env.getInt("CHECK_POOL_SIZE", DEFAULT_POOL_SIZE));
+        setDefaultProperty("jdk.httpclient.keepalive.timeout",
+                Env.getInt("CHECK_KEEP_ALIVE_SECONDS", DEFAULT_KEEP_ALIVE_SECONDS));
+
+        UnirestInstance client = Unirest.spawnInstance();
+        client.config()
+                .connectTimeout(CONNECT_TIMEOUT_MILLIS)
+                .requestTimeout(REQUEST_TIMEOUT_MILLIS)
+                .version(getHttpVersion())
+                .followRedirects(false);
+
+        log.info("Check HTTP client configured, connect timeout: {} ms, request timeout: {} ms, max redirects: {}",
+                CONNECT_TIMEOUT_MILLIS, REQUEST_TIMEOUT_MILLIS, MAX_REDIRECTS);
+        return client;
+    }
+
+    private static HttpClient.Version getHttpVersion() {
+        String version = Env.getString("CHECK_HTTP_VERSION", HttpClient.Version.HTTP_2.name());
+        try {
+            return HttpClient.Version.valueOf(version.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown HTTP version '{}', using HTTP_2", version);
+            return HttpClient.Version.HTTP_2;
+        }
+    }
+
+    private static void setDefaultProperty(String name, int value) {
+        if (System.getProperty(name) == null) {
+            System.setProperty(name, String.valueOf(value));
+        }
+    }
+
+    private static String resolveRedirect(String currentUrl, String location) {
+        URI target;
+        try {
+            target = URI.create(currentUrl).resolve(location.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid redirect location: " + location, e);
+        }
+
+        String scheme = target.getScheme();
+        if (scheme == null || !scheme.equalsIgnoreCase("http") && !scheme.equalsIgnoreCase("https")
+                || target.getHost() == null) {
+            throw new IllegalStateException("Unsupported redirect location: " + location);
+        }
+        return target.toString();
+    }
+
+    private static String getHost(String url) {
+        String host = URI.create(url).getHost();
+        return host != null ? host.toLowerCase() : url;
+    }
+
+    private static Duration getRetryAfter(HttpResponse<?> response) {
+        String value = response.getHeaders().getFirst(RETRY_AFTER);
+        if (!THROTTLED_CODES.contains(response.getStatus()) || value == null || value.isBlank()) {
+            return null;
+        }
+
+        Duration delay;
+        try {
+            delay = Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                delay = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            } catch (DateTimeParseException dateException) {
+                log.debug("Ignoring invalid Retry-After value '{}'", value);
+                return null;
+            }
+        }
+
+        if (delay.isNegative()) {
+            return Duration.ZERO;
+        }
+        return delay.toSeconds() > MAX_RETRY_AFTER_SECONDS ? Duration.ofSeconds(MAX_RETRY_AFTER_SECONDS) : delay;
+    }
+
+    // robots.txt is read once per host while it has a rate limit; checks started before it is read use the default,
+    // a failed read is tried again by the next check of the host
+    private static void applyCrawlDelay(String url, String host) {
+        if (!ROBOTS_CRAWL_DELAY || !RATE_LIMITER.markRobotsChecked(host)) {
+            return;
+        }
+
+        String robotsUrl = URI.create(url).resolve("/robots.txt").toString();
+        try {
+            RATE_LIMITER.acquire(host);
+            HttpResponse<String> response = CLIENT.get(robotsUrl).asObject(CheckFetcher::readRobots);
+            Duration crawlDelay = response.getStatus() == HttpStatus.OK.getCode()
+                    ? parseCrawlDelay(response.getBody())
+                    : null;
+            if (crawlDelay != null) {
+                RATE_LIMITER.setCrawlDelay(host, crawlDelay);
+            }
+        } catch (HostBusyException | UnirestException | UncheckedIOException e) {
+            log.debug("Failed to read {}: {}", robotsUrl, e.getMessage());
+            RATE_LIMITER.clearRobotsChecked(host);
+        }
+    }
+
+    private static String readRobots(RawResponse rawResponse) {
+        try (InputStream body = rawResponse.getContent()) {
+            return new String(body.readNBytes(MAX_ROBOTS_BYTES), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // only the crawl-delay of the "*" group applies, checks are not sent with a dedicated user agent
+    private static Duration parseCrawlDelay(String robots) {
+        boolean anyAgentGroup = false;
+        boolean readingRules = true;
+
+        // consecutive user-agent lines share the rules that follow them
+        for (String line : robots.split("\n")) {
+            Matcher userAgent = USER_AGENT_PATTERN.matcher(line);
+            if (userAgent.find()) {
+                boolean anyAgent = userAgent.group(1).equals("*");
+                anyAgentGroup = readingRules ? anyAgent : anyAgentGroup || anyAgent;
+                readingRules = false;
+                continue;
+            }
+            if (!line.isBlank() && !line.strip().startsWith("#")) {
+                readingRules = true;
+            }
+
+            Matcher crawlDelay = CRAWL_DELAY_PATTERN.matcher(line);
+            if (anyAgentGroup && crawlDelay.find()) {
+                try {
+                    return Duration.ofMillis((long) (Double.parseDouble(crawlDelay.group(1)) * 1000));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static void checkDeadline(String url, long deadline, Duration timeout) {
+        if (System.nanoTime() - deadline > 0) {
+            throw new IllegalStateException(String.format("Check of URL %s did not finish in %d ms", url,
+                    timeout.toMillis()));
+        }
+    }
+
+    private static PageContent readContent(RawResponse rawResponse, long deadline) {
+        try (InputStream body = new DeadlineInputStream(rawResponse.getContent(), deadline)) {
+            int status = rawResponse.getStatus();
+            if (status == HttpStatus.NOT_MODIFIED.getCode() || REDIRECT_CODES.contains(status)) {
+                return null;
+            }
+
+            // a read blocked on a stalled connection only returns once the stream is closed
+            ScheduledFuture<?> closer = DEADLINES.schedule(() -> closeQuietly(body),
+                    deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            try {
+                Timer.Sample sample = Timer.start(AppMetrics.getRegistry());
+                PageContent content = PageExtractor.extract(body, getCharset(rawResponse), MAX_BODY_BYTES);
+                sample.stop(AppMetrics.parseTimer());
+                return content;
+            } finally {
+                closer.cancel(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Failed to close response body: {}", e.getMessage());
+        }
+    }
+
+    private static Charset getCharset(RawResponse rawResponse) {
+        String contentType = rawResponse.getHeaders().getFirst(Header.CONTENT_TYPE);
+        Matcher matcher = CHARSET_PATTERN.matcher(contentType != null ? contentType : "");
+
+        if (matcher.find()) {
+            try {
+                return Charset.forName(matcher.group(1));
+            } catch (IllegalArgumentException e) {
+                log.debug("Unsupported charset '{}', falling back to UTF-8", matcher.group(1));
+            }
+        }
+
+        return StandardCharsets.UTF_8;
+    }
+
+    private static final class DeadlineInputStream extends FilterInputStream {
+        private final long deadline;
+
+        DeadlineInputStream(InputStream in, long deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            int value = super.read();
+            checkDeadline();
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            checkDeadline();
+            int count = super.read(buffer, offset, length);
+            checkDeadline();
+            return count;
+        }
+
+        private void checkDeadline() throws IOException {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("Response body was not received before the check deadline");
+            }
+        }
+    }
+}
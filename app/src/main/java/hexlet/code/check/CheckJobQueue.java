@@ -0,0 +1,179 @@
+package hexlet.code.check;
+
+import hexlet.code.model.CheckStatus;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlChecksWriteBehind;
+import hexlet.code.util.Env;
+import hexlet.code.util.ThreadMode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+public class CheckJobQueue {
+    private static final int DEFAULT_WORKERS = 4;
+    private static final int DEFAULT_VIRTUAL_WORKERS = 64;
+    private static final int DEFAULT_CAPACITY = 100;
+    private static final String DEFAULT_POLICY = "reject";
+    private static final String CALLER_RUNS_POLICY = "caller-runs";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final int MAX_DEFERRALS = 3;
+    private static final Duration FULL_QUEUE_DELAY = Duration.ofSeconds(1);
+
+    private static final AtomicInteger DEFERRED_COUNT = new AtomicInteger();
+
+    private static ThreadPoolExecutor executor;
+    private static ScheduledExecutorService deferredChecks;
+
+    public static synchronized void start() throws SQLException {
+        if (executor != null && !executor.isShutdown()) {
+            return;
+        }
+
+        int defaultWorkers = ThreadMode.isVirtual() ? DEFAULT_VIRTUAL_WORKERS : DEFAULT_WORKERS;
+        int workers = Env.getInt("CHECK_WORKERS", defaultWorkers);
+        int capacity = Env.getInt("CHECK_QUEUE_CAPACITY", DEFAULT_CAPACITY);
+        String policy = Env.getString("CHECK_QUEUE_POLICY", DEFAULT_POLICY);
+
+        UrlChecksRepository.failUnfinished();
+
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), ThreadMode.createThreadFactory("url-check-worker-"),
+                createRejectionHandler(policy));
+        // deferred checks are put straight into the queue, which needs the workers to be running already
+        executor.prestartAllCoreThreads();
+        deferredChecks = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("deferred-checks")
+                .daemon(true)
+                .factory());
+
+        log.info("Check queue started with {} {} workers, capacity: {}, policy: {}",
+                workers, ThreadMode.getMode(), capacity, policy);
+    }
+
+    public static Optional<UrlCheck> enqueue(Url url) throws SQLException {
+        ThreadPoolExecutor currentExecutor = executor;
+        if (currentExecutor == null || currentExecutor.isShutdown()) {
+            throw new IllegalStateException("Check queue is not running");
+        }
+
+        int remainingCapacity = currentExecutor.getQueue().remainingCapacity() - DEFERRED_COUNT.get();
+        if (isRejecting(currentExecutor) && remainingCapacity <= 0) {
+            log.warn("Check queue is full, rejecting check for URL: {}", url.getName());
+            return Optional.empty();
+        }
+
+        UrlCheck urlCheck = new UrlCheck(url.getId());
+        urlCheck.setStatus(CheckStatus.PENDING);
+        UrlChecksRepository.save(urlCheck);
+
+        try {
+            currentExecutor.execute(() -> runCheck(url, urlCheck, 0));
+        } catch (RejectedExecutionException e) {
+            log.warn("Check queue is full, rejecting check for URL: {}", url.getName());
+            UrlChecksRepository.delete(urlCheck);
+            return Optional.empty();
+        }
+
+        log.info("Check {} queued for URL: {}", urlCheck.getId(), url.getName());
+        return Optional.of(urlCheck);
+    }
+
+    public static boolean isRunning() {
+        ThreadPoolExecutor currentExecutor = executor;
+        return currentExecutor != null && !currentExecutor.isShutdown();
+    }
+
+    public static int getQueueSize() {
+        ThreadPoolExecutor currentExecutor = executor;
+        return currentExecutor != null ? currentExecutor.getQueue().size() + DEFERRED_COUNT.get() : 0;
+    }
+
+    private static void runCheck(Url url, UrlCheck urlCheck, int deferrals) {
+        try {
+            UrlChecker.run(url, urlCheck);
+        } catch (HostBusyException e) {
+            defer(url, urlCheck, deferrals + 1, e.getDelay(), e.getMessage());
+        }
+    }
+
+    // a check of a rate limited host waits here instead of holding a worker until the host is available
+    private static void defer(Url url, UrlCheck urlCheck, int deferrals, Duration delay, String reason) {
+        if (deferrals > MAX_DEFERRALS) {
+            log.warn("Check {} for URL {} failed after {} deferrals: {}", urlCheck.getId(), url.getName(),
+                    MAX_DEFERRALS, reason);
+            urlCheck.setStatus(CheckStatus.FAILED);
+            UrlChecksWriteBehind.write(urlCheck);
+            return;
+        }
+
+        log.info("Check {} for URL {} deferred by {} ms", urlCheck.getId(), url.getName(), delay.toMillis());
+        DEFERRED_COUNT.incrementAndGet();
+        try {
+            deferredChecks.schedule(() -> {
+                DEFERRED_COUNT.decrementAndGet();
+                resubmit(url, urlCheck, deferrals);
+            }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejected) {
+            DEFERRED_COUNT.decrementAndGet();
+            log.warn("Check queue is shutting down, check {} stays pending", urlCheck.getId());
+        }
+    }
+
+    // offered to the queue rather than executed, so neither policy can run the check on the scheduler thread;
+    // the capacity check in enqueue is not atomic, a full queue defers the check once more
+    private static void resubmit(Url url, UrlCheck urlCheck, int deferrals) {
+        ThreadPoolExecutor currentExecutor = executor;
+        if (currentExecutor.isShutdown()) {
+            log.warn("Check queue is shutting down, check {} stays pending", urlCheck.getId());
+            return;
+        }
+
+        if (!currentExecutor.getQueue().offer(() -> runCheck(url, urlCheck, deferrals))) {
+            defer(url, urlCheck, deferrals + 1, FULL_QUEUE_DELAY, "check queue is full");
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        log.info("Shutting down check queue, {} checks pending, {} deferred", executor.getQueue().size(),
+                DEFERRED_COUNT.get());
+        deferredChecks.shutdownNow();
+        DEFERRED_COUNT.set(0);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isRejecting(ThreadPoolExecutor currentExecutor) {
+        return !(currentExecutor.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.CallerRunsPolicy);
+    }
+
+    private static RejectedExecutionHandler createRejectionHandler(String policy) {
+        if (CALLER_RUNS_POLICY.equalsIgnoreCase(policy)) {
+            return new ThreadPoolExecutor.CallerRunsPolicy();
+        }
+        return new ThreadPoolExecutor.AbortPolicy();
+    }
+}
@@ -0,0 +1,15 @@
+package hexlet.code.check;
+
+import kong.unirest.core.Headers;
+
+public record FetchResult(
+        int statusCode,
+        Headers headers,
+        PageContent content,
+        FetchTimings timings
+) {
+    public String header(String name) {
+        String value = headers.getFirst(name);
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,9 @@
+package hexlet.code.check;
+
+public record FetchTimings(
+        long firstByteMillis,
+        long bodyMillis,
+        long totalMillis,
+        int redirects
+) {
+}
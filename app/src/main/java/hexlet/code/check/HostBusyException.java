@@ -0,0 +1,15 @@
+package hexlet.code.check;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public final class HostBusyException extends IllegalStateException {
+    private final Duration delay;
+
+    public HostBusyException(String host, Duration delay) {
+        super(String.format("Requests to %s are rate limited for another %d ms", host, delay.toMillis()));
+        this.delay = delay;
+    }
+}
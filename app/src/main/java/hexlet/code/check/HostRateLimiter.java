@@ -0,0 +1,138 @@
+package hexlet.code.check;
+
+import hexlet.code.util.Env;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public final class HostRateLimiter {
+    private static final long DEFAULT_INTERVAL_MILLIS = 250;
+    private static final int DEFAULT_BURST = 4;
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 500;
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final long intervalNanos;
+    private final int burst;
+    private final long maxWaitNanos;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepAt = new AtomicLong(System.nanoTime());
+
+    // a token bucket stored as the time its next token is due (GCRA), so taking a token is a single CAS
+    private static final class Bucket {
+        private final AtomicLong nextTokenAt = new AtomicLong(System.nanoTime());
+        private volatile long intervalNanos;
+        private volatile int burst;
+        private final AtomicBoolean robotsChecked = new AtomicBoolean();
+
+        private Bucket(long intervalNanos, int burst) {
+            this.intervalNanos = intervalNanos;
+            this.burst = burst;
+        }
+    }
+
+    public HostRateLimiter(Duration interval, int burst, Duration maxWait) {
+        this.intervalNanos = interval.toNanos();
+        this.burst = Math.max(burst, 1);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public static HostRateLimiter fromEnv() {
+        HostRateLimiter limiter = new HostRateLimiter(
+                Duration.ofMillis(Env.getLong("CHECK_HOST_INTERVAL_MILLIS", DEFAULT_INTERVAL_MILLIS)),
+                Env.getInt("CHECK_HOST_BURST", DEFAULT_BURST),
+                Duration.ofMillis(Env.getLong("CHECK_HOST_MAX_WAIT_MILLIS", DEFAULT_MAX_WAIT_MILLIS)));
+
+        log.info("Host rate limiter configured, interval: {} ms, burst: {}, max wait: {} ms",
+                TimeUnit.NANOSECONDS.toMillis(limiter.intervalNanos), limiter.burst,
+                TimeUnit.NANOSECONDS.toMillis(limiter.maxWaitNanos));
+        return limiter;
+    }
+
+    // waits at most the max wait, a longer delay is left to the caller so no worker sleeps for it
+    public void acquire(String host) {
+        long waitNanos = reserve(host);
+        if (waitNanos <= 0) {
+            return;
+        }
+
+        log.debug("Waiting {} ms before requesting {}", TimeUnit.NANOSECONDS.toMillis(waitNanos), host);
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to request " + host, e);
+        }
+    }
+
+    public boolean markRobotsChecked(String host) {
+        return getBucket(host).robotsChecked.compareAndSet(false, true);
+    }
+
+    public void clearRobotsChecked(String host) {
+        getBucket(host).robotsChecked.set(false);
+    }
+
+    public boolean isWithinMaxWait(Duration delay) {
+        return delay.toNanos() <= maxWaitNanos;
+    }
+
+    // no request to the host is allowed before the delay has passed, e.g. after a 429 with Retry-After
+    public void pause(String host, Duration delay) {
+        Bucket bucket = getBucket(host);
+        long resumeAt = System.nanoTime() + delay.toNanos();
+
+        bucket.nextTokenAt.accumulateAndGet(resumeAt + (bucket.burst - 1) * bucket.intervalNanos, Math::max);
+        log.info("Requests to {} paused for {} ms", host, delay.toMillis());
+    }
+
+    public void setCrawlDelay(String host, Duration crawlDelay) {
+        Bucket bucket = getBucket(host);
+        bucket.intervalNanos = Math.max(intervalNanos, crawlDelay.toNanos());
+        bucket.burst = 1;
+        log.info("Using crawl delay of {} ms for {}", TimeUnit.NANOSECONDS.toMillis(bucket.intervalNanos), host);
+    }
+
+    private long reserve(String host) {
+        Bucket bucket = getBucket(host);
+
+        while (true) {
+            long now = System.nanoTime();
+            long interval = bucket.intervalNanos;
+            long nextTokenAt = bucket.nextTokenAt.get();
+            long grantedAt = Math.max(nextTokenAt, now) - (bucket.burst - 1) * interval;
+            long waitNanos = grantedAt - now;
+
+            if (waitNanos > maxWaitNanos) {
+                throw new HostBusyException(host, Duration.ofNanos(waitNanos));
+            }
+            if (bucket.nextTokenAt.compareAndSet(nextTokenAt, Math.max(nextTokenAt, now) + interval)) {
+                return waitNanos;
+            }
+        }
+    }
+
+    private Bucket getBucket(String host) {
+        evictIdleBuckets();
+        return buckets.computeIfAbsent(host, key -> new Bucket(intervalNanos, burst));
+    }
+
+    // a bucket whose next token has long been due behaves like a new one, so it can be dropped; a request racing
+    // with the sweep may take its token from the dropped bucket, which lets at most one extra request through
+    private void evictIdleBuckets() {
+        long now = System.nanoTime();
+        long lastSweep = lastSweepAt.get();
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS || !lastSweepAt.compareAndSet(lastSweep, now)) {
+            return;
+        }
+
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> now - bucket.nextTokenAt.get() > IDLE_NANOS);
+        log.debug("Evicted {} idle host rate limits, {} left", before - buckets.size(), buckets.size());
+    }
+}
@@ -0,0 +1,10 @@
+package hexlet.code.check;
+
+public record PageContent(
+        String title,
+        String h1,
+        String description,
+        long bytesRead,
+        boolean truncated
+) {
+}
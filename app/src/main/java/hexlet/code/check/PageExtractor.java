@@ -0,0 +1,119 @@
+package hexlet.code.check;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
+@Slf4j
+public class PageExtractor {
+    private static final Evaluator TITLE = QueryParser.parse("title");
+    private static final Evaluator H1 = QueryParser.parse("h1");
+    private static final Evaluator DESCRIPTION = QueryParser.parse("meta[name=description]");
+
+    public static PageContent extract(InputStream body, Charset charset, long maxBytes) throws IOException {
+        LimitedInputStream limitedBody = new LimitedInputStream(body, maxBytes);
+        String title = null;
+        String h1 = null;
+        String description = null;
+
+        try (StreamParser parser = new StreamParser(Parser.htmlParser())) {
+            parser.parse(new BufferedReader(new InputStreamReader(limitedBody, charset)), "");
+            Iterator<Element> elements = parser.iterator();
+
+            while ((title == null || h1 == null || description == null) && elements.hasNext()) {
+                Element element = elements.next();
+
+                if (title == null && element.is(TITLE)) {
+                    title = element.text();
+                } else if (h1 == null && element.is(H1)) {
+                    h1 = element.text();
+                } else if (description == null && element.is(DESCRIPTION)) {
+                    description = element.attr("content");
+                }
+
+                // children of a pending h1 are kept until it closes, everything else is dropped once seen
+                if (element.is(H1) || element.closest(H1) == null) {
+                    element.remove();
+                }
+            }
+        }
+
+        if (limitedBody.isTruncated()) {
+            log.warn("Response body exceeded {} bytes, extracted from the first {} bytes only", maxBytes, maxBytes);
+        }
+
+        return new PageContent(
+                title != null ? title : "",
+                h1 != null ? h1 : "",
+                description != null ? description : "",
+                limitedBody.getBytesRead(),
+                limitedBody.isTruncated()
+        );
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long bytesRead;
+        private boolean truncated;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (isLimitReached()) {
+                return -1;
+            }
+
+            int value = super.read();
+            if (value != -1) {
+                bytesRead++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (isLimitReached()) {
+                return -1;
+            }
+
+            int count = super.read(buffer, offset, (int) Math.min(length, maxBytes - bytesRead));
+            if (count > 0) {
+                bytesRead += count;
+            }
+            return count;
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        private boolean isLimitReached() throws IOException {
+            if (bytesRead < maxBytes) {
+                return false;
+            }
+
+            // one more byte tells a page of exactly maxBytes apart from a longer one
+            truncated = truncated || super.read() != -1;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package hexlet.code.check;
+
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlsRepository;
+import hexlet.code.util.Env;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class RecheckScheduler {
+    private static final long DEFAULT_INTERVAL_SECONDS = 3600;
+    private static final long DEFAULT_JITTER_SECONDS = 300;
+    private static final long DEFAULT_RETRY_DELAY_SECONDS = 60;
+    private static final long DEFAULT_DISCOVERY_INTERVAL_SECONDS = 30;
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private static final DelayQueue<ScheduledRecheck> QUEUE = new DelayQueue<>();
+
+    private static volatile Duration interval;
+    private static volatile Duration jitter;
+    private static volatile Duration retryDelay;
+    private static volatile Duration discoveryInterval;
+    private static Thread thread;
+    private static long lastSeenUrlId;
+
+    private record ScheduledRecheck(long urlId, long dueAtNanos) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    public static synchronized void start() {
+        if (!Env.getBoolean("RECHECK_ENABLED", true)) {
+            log.info("Scheduled re-checks are disabled");
+            return;
+        }
+
+        start(Duration.ofSeconds(Env.getLong("RECHECK_INTERVAL_SECONDS", DEFAULT_INTERVAL_SECONDS)),
+                Duration.ofSeconds(Env.getLong("RECHECK_JITTER_SECONDS", DEFAULT_JITTER_SECONDS)),
+                Duration.ofSeconds(Env.getLong("RECHECK_RETRY_DELAY_SECONDS", DEFAULT_RETRY_DELAY_SECONDS)),
+                Duration.ofSeconds(Env.getLong("RECHECK_DISCOVERY_INTERVAL_SECONDS",
+                        DEFAULT_DISCOVERY_INTERVAL_SECONDS)));
+    }
+
+    static synchronized void start(Duration recheckInterval, Duration recheckJitter, Duration recheckRetryDelay,
+                                   Duration recheckDiscoveryInterval) {
+        if (thread != null && thread.isAlive()) {
+            return;
+        }
+
+        interval = recheckInterval;
+        jitter = recheckJitter;
+        retryDelay = recheckRetryDelay;
+        discoveryInterval = recheckDiscoveryInterval;
+        QUEUE.clear();
+        lastSeenUrlId = 0;
+        thread = Thread.ofPlatform()
+                .name("recheck-scheduler")
+                .daemon(true)
+                .start(RecheckScheduler::run);
+
+        log.info("Re-check scheduler started, interval: {}, jitter: {}", interval, jitter);
+    }
+
+    public static int getScheduledCount() {
+        return QUEUE.size();
+    }
+
+    public static synchronized void shutdown() {
+        if (thread == null) {
+            return;
+        }
+
+        log.info("Shutting down re-check scheduler, {} URLs scheduled", QUEUE.size());
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    private static void run() {
+        long nextDiscoveryAt = System.nanoTime();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (System.nanoTime() - nextDiscoveryAt >= 0) {
+                    nextDiscoveryAt = System.nanoTime() + discoveryInterval.toNanos();
+                    discoverUrls();
+                }
+
+                ScheduledRecheck recheck = QUEUE.poll(nextDiscoveryAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (recheck == null) {
+                    continue;
+                }
+                if (!CheckJobQueue.isRunning()) {
+                    log.warn("Check queue is not running, stopping re-check scheduler");
+                    return;
+                }
+                dispatch(recheck.urlId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (SQLException | RuntimeException e) {
+                log.error("Re-check scheduler failed to load URLs: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void discoverUrls() throws SQLException {
+        Map<Long, Instant> lastCheckTimes = UrlsRepository.findLastCheckTimesAfter(lastSeenUrlId, SEED_BATCH_SIZE);
+        int discovered = 0;
+
+        while (!lastCheckTimes.isEmpty()) {
+            for (Map.Entry<Long, Instant> entry : lastCheckTimes.entrySet()) {
+                schedule(entry.getKey(), entry.getValue().plus(interval));
+                lastSeenUrlId = entry.getKey();
+            }
+            discovered += lastCheckTimes.size();
+            lastCheckTimes = UrlsRepository.findLastCheckTimesAfter(lastSeenUrlId, SEED_BATCH_SIZE);
+        }
+
+        if (discovered > 0) {
+            log.info("Scheduled re-checks for {} URLs, {} scheduled in total", discovered, QUEUE.size());
+        }
+    }
+
+    private static void dispatch(long urlId) {
+        try {
+            Optional<Url> url = UrlsRepository.find(urlId);
+            if (url.isEmpty()) {
+                log.debug("URL {} no longer exists, dropping it from the re-check schedule", urlId);
+                return;
+            }
+
+            // a check that is still queued or running is left to finish, its result postpones the next re-check
+            if (UrlChecksRepository.hasUnfinishedCheck(urlId)) {
+                log.debug("URL {} has an unfinished check, retrying re-check later", urlId);
+                schedule(urlId, Instant.now().plus(retryDelay));
+                return;
+            }
+
+            // a check requested by a user in the meantime postpones the next re-check
+            Optional<Instant> lastCheckedAt = UrlChecksRepository.findLastCheck(urlId)
+                    .map(UrlCheck::getCreatedAt);
+            if (lastCheckedAt.isPresent() && lastCheckedAt.get().plus(interval).isAfter(Instant.now())) {
+                schedule(urlId, lastCheckedAt.get().plus(interval));
+                return;
+            }
+
+            if (CheckJobQueue.enqueue(url.get()).isPresent()) {
+                schedule(urlId, Instant.now().plus(interval));
+            } else {
+                log.debug("Check queue is full, retrying re-check of URL {} later", urlId);
+                schedule(urlId, Instant.now().plus(retryDelay));
+            }
+        } catch (SQLException | RuntimeException e) {
+            // the URL stays in the schedule, otherwise it would not be re-checked until the next restart
+            log.error("Failed to dispatch re-check of URL {}: {}", urlId, e.getMessage(), e);
+            schedule(urlId, Instant.now().plus(retryDelay));
+        }
+    }
+
+    private static void schedule(long urlId, Instant dueAt) {
+        Instant from = dueAt.isBefore(Instant.now()) ? Instant.now() : dueAt;
+        long jitterNanos = jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toNanos());
+        long delayNanos = Duration.between(Instant.now(), from).toNanos() + jitterNanos;
+
+        QUEUE.add(new ScheduledRecheck(urlId, System.nanoTime() + delayNanos));
+    }
+}
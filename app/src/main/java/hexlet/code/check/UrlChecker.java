@@ -0,0 +1,125 @@
+package hexlet.code.check;
+
+import hexlet.code.metrics.AppMetrics;
+import hexlet.code.model.CheckStatus;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlChecksWriteBehind;
+import hexlet.code.util.ContentHash;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+public class UrlChecker {
+
+    public static void run(Url url, UrlCheck urlCheck) {
+        log.info("Running check {} for URL: {}", urlCheck.getId(), url.getName());
+
+        try {
+            urlCheck.setStatus(CheckStatus.RUNNING);
+            UrlChecksRepository.updateStatus(urlCheck);
+
+            try {
+                UrlCheck previousCheck = UrlChecksRepository.findLastCheck(url.getId()).orElse(null);
+                UrlCheck result = fetch(url, previousCheck);
+                urlCheck.setStatusCode(result.getStatusCode());
+                urlCheck.setTitle(result.getTitle());
+                urlCheck.setH1(result.getH1());
+                urlCheck.setDescription(result.getDescription());
+                urlCheck.setEtag(result.getEtag());
+                urlCheck.setLastModified(result.getLastModified());
+                urlCheck.setContentHash(result.getContentHash());
+                urlCheck.setContentCheckId(result.getContentCheckId());
+                urlCheck.setStatus(CheckStatus.FINISHED);
+            } catch (HostBusyException e) {
+                urlCheck.setStatus(CheckStatus.PENDING);
+                UrlChecksRepository.updateStatus(urlCheck);
+                throw e;
+            } catch (RuntimeException e) {
+                // any failure has to be stored, otherwise the check stays RUNNING until the next restart
+                log.error("Error during URL check: {}", e.getMessage(), e);
+                AppMetrics.recordCheckFailure(e);
+                urlCheck.setStatus(CheckStatus.FAILED);
+            }
+
+            UrlChecksWriteBehind.write(urlCheck);
+            log.info("Check {} for URL {} completed with status {}", urlCheck.getId(), url.getName(),
+                    urlCheck.getStatus());
+        } catch (SQLException e) {
+            log.error("Failed to store result of check {}: {}", urlCheck.getId(), e.getMessage(), e);
+        }
+    }
+
+    public static UrlCheck fetch(Url url, UrlCheck previousCheck) {
+        Map<String, String> headers = new HashMap<>();
+        if (previousCheck != null && previousCheck.getEtag() != null) {
+            headers.put(Header.IF_NONE_MATCH, previousCheck.getEtag());
+        }
+        if (previousCheck != null && previousCheck.getLastModified() != null) {
+            headers.put(Header.IF_MODIFIED_SINCE, previousCheck.getLastModified());
+        }
+
+        FetchResult result = CheckFetcher.fetch(url.getName(), headers);
+
+        if (previousCheck != null && result.statusCode() == HttpStatus.NOT_MODIFIED.getCode()) {
+            log.info("URL {} not modified since check {}", url.getName(), previousCheck.getId());
+            return withContentReference(reuse(url, previousCheck, result), previousCheck);
+        }
+
+        PageContent content = result.content();
+
+        if (content == null || content.bytesRead() == 0) {
+            log.error("Empty response body for URL: {}", url.getName());
+            throw new IllegalStateException("Response body is empty for URL: " + url.getName());
+        }
+
+        int statusCode = result.statusCode();
+        log.info("Checking url, status code: {}, body bytes read: {}", statusCode, content.bytesRead());
+
+        UrlCheck urlCheck = new UrlCheck(url.getId());
+        urlCheck.setStatusCode(statusCode);
+        urlCheck.setTitle(content.title());
+        urlCheck.setH1(content.h1());
+        urlCheck.setDescription(content.description());
+        urlCheck.setEtag(result.header(Header.ETAG));
+        urlCheck.setLastModified(result.header(Header.LAST_MODIFIED));
+
+        return withContentReference(urlCheck, previousCheck);
+    }
+
+    private static UrlCheck withContentReference(UrlCheck urlCheck, UrlCheck previousCheck) {
+        String contentHash = ContentHash.of(urlCheck.getTitle(), urlCheck.getH1(), urlCheck.getDescription());
+        urlCheck.setContentHash(contentHash);
+
+        if (previousCheck != null && contentHash.equals(previousCheck.getContentHash())) {
+            Long contentCheckId = previousCheck.getContentCheckId() != null
+                    ? previousCheck.getContentCheckId()
+                    : previousCheck.getId();
+            urlCheck.setContentCheckId(contentCheckId);
+            log.debug("Content of URL ID {} unchanged since check {}", urlCheck.getUrlId(), contentCheckId);
+        }
+
+        return urlCheck;
+    }
+
+    private static UrlCheck reuse(Url url, UrlCheck previousCheck, FetchResult result) {
+        UrlCheck urlCheck = new UrlCheck(url.getId());
+        urlCheck.setStatusCode(previousCheck.getStatusCode());
+        urlCheck.setTitle(previousCheck.getTitle());
+        urlCheck.setH1(previousCheck.getH1());
+        urlCheck.setDescription(previousCheck.getDescription());
+
+        String etag = result.header(Header.ETAG);
+        String lastModified = result.header(Header.LAST_MODIFIED);
+        urlCheck.setEtag(etag != null ? etag : previousCheck.getEtag());
+        urlCheck.setLastModified(lastModified != null ? lastModified : previousCheck.getLastModified());
+
+        return urlCheck;
+    }
+}
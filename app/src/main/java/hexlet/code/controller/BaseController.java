@@ -1,5 +1,14 @@
 package hexlet.code.controller;
 
+import hexlet.code.cache.DataVersion;
+import hexlet.code.util.Env;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import jakarta.servlet.http.HttpSession;
+
+import java.util.Arrays;
+
 public class BaseController {
     public static final String ERROR_FLASH_TYPE = "error";
     public static final String ALERT_FLASH_TYPE = "alert";
@@ -7,4 +16,38 @@ public class BaseController {
 
     public static final String FLASH_SESSION_ATTRIBUTE = "flash";
     public static final String FLASH_TYPE_SESSION_ATTRIBUTE = "flash-type";
+
+    private static final String PAGE_CACHE_CONTROL = "private, no-cache";
+    private static final boolean PAGE_CACHE_ENABLED = Env.getBoolean("PAGE_CACHE_ENABLED", true);
+
+    public static boolean isNotModified(Context ctx, String scope) {
+        if (!PAGE_CACHE_ENABLED || hasPendingFlash(ctx)) {
+            return false;
+        }
+
+        // computed before any query: a write that lands while the page renders bumps the version for the next request
+        String etag = DataVersion.etag(scope);
+        ctx.header(Header.ETAG, etag);
+        ctx.header(Header.CACHE_CONTROL, PAGE_CACHE_CONTROL);
+
+        String ifNoneMatch = ctx.header(Header.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        boolean matches = Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals(etag) || tag.equals("*"));
+        if (matches) {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+        }
+
+        return matches;
+    }
+
+    private static boolean hasPendingFlash(Context ctx) {
+        HttpSession session = ctx.req().getSession(false);
+        return session != null && session.getAttribute(FLASH_SESSION_ATTRIBUTE) != null;
+    }
 }
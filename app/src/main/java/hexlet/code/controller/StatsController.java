@@ -0,0 +1,21 @@
+package hexlet.code.controller;
+
+import hexlet.code.cache.Caches;
+import hexlet.code.metrics.AppMetrics;
+import io.javalin.http.Context;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class StatsController extends BaseController {
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    public static void caches(Context ctx) {
+        log.debug("Rendering cache stats for request: {}", ctx.path());
+        ctx.json(Caches.getStats());
+    }
+
+    public static void metrics(Context ctx) {
+        ctx.contentType(PROMETHEUS_CONTENT_TYPE);
+        ctx.result(AppMetrics.scrape());
+    }
+}
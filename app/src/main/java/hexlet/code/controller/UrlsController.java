@@ -1,5 +1,7 @@
 package hexlet.code.controller;
 
+import hexlet.code.check.BulkCheckJob;
+import hexlet.code.dto.urls.BulkCheckProgress;
 import hexlet.code.dto.urls.UrlPage;
 import hexlet.code.dto.urls.UrlsPage;
 import hexlet.code.model.Url;
@@ -7,15 +9,16 @@ import hexlet.code.model.UrlCheck;
 import hexlet.code.repository.UrlChecksRepository;
 import hexlet.code.repository.UrlsRepository;
 import hexlet.code.util.NamedRoutes;
+import hexlet.code.util.UrlNormalizer;
 import io.javalin.http.Context;
 import io.javalin.http.NotFoundResponse;
 import lombok.extern.slf4j.Slf4j;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URL;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static io.javalin.rendering.template.TemplateUtil.model;
 
@@ -26,19 +29,16 @@ public class UrlsController extends BaseController {
     private static final String EXISTING_URL_FLASH_MESSAGE = "Страница уже существует";
     private static final String SUCCESSFULLY_ADDED_URL_FLASH_MESSAGE = "Страница успешно добавлена";
 
+    private static final int DEFAULT_PER_PAGE = 20;
+    private static final int MAX_PER_PAGE = 100;
+
     public static void createUrl(Context ctx) throws SQLException {
         log.info("Attempting to createUrl URL from request");
 
-        String formParamUrl = ctx.formParam("url");
-        String fullUrlStr = formParamUrl != null ? formParamUrl.trim().toLowerCase() : null;
-
-        URL parsedUrl;
-
-        try {
-            parsedUrl = URI.create(fullUrlStr).toURL();
-        } catch (MalformedURLException | IllegalArgumentException e) {
-            log.error("Failed to createUrl URL: {}", e.getMessage(), e);
+        Optional<String> normalizedUrl = UrlNormalizer.normalize(ctx.formParam("url"));
 
+        if (normalizedUrl.isEmpty()) {
+            log.info("Rejected invalid URL: {}", ctx.formParam("url"));
             ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, INVALID_URL_FLASH_MESSAGE);
             ctx.sessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE, ERROR_FLASH_TYPE);
 
@@ -46,9 +46,11 @@ public class UrlsController extends BaseController {
             return;
         }
 
-        String normalizedUrlStr = getNormalizedUrl(parsedUrl);
+        String normalizedUrlStr = normalizedUrl.get();
 
-        if (UrlsRepository.existsByName(normalizedUrlStr)) {
+        Url url = new Url(normalizedUrlStr);
+
+        if (!UrlsRepository.saveIfAbsent(url)) {
             log.info("URL already exists: {}", normalizedUrlStr);
             ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, EXISTING_URL_FLASH_MESSAGE);
             ctx.sessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE, ALERT_FLASH_TYPE);
@@ -57,8 +59,6 @@ public class UrlsController extends BaseController {
             return;
         }
 
-        Url url = new Url(normalizedUrlStr);
-        UrlsRepository.save(url);
         log.info("URL created successfully: {}", normalizedUrlStr);
 
         ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, SUCCESSFULLY_ADDED_URL_FLASH_MESSAGE);
@@ -67,15 +67,57 @@ public class UrlsController extends BaseController {
         ctx.redirect(NamedRoutes.urlsPath());
     }
 
-    public static void index(Context ctx) throws SQLException {
+    public static void index(Context ctx) throws SQLException, IOException {
+        if (ctx.queryParamAsClass("stream", Boolean.class).getOrDefault(false)) {
+            UrlsExportController.stream(ctx);
+            return;
+        }
+
+        BulkCheckProgress currentProgress = BulkCheckJob.getCurrentProgress().orElse(null);
+        String scope = currentProgress != null ? "urls-" + Integer.toHexString(currentProgress.hashCode()) : "urls";
+        if (isNotModified(ctx, scope)) {
+            log.debug("URLs index page not modified");
+            return;
+        }
+
         log.info("Rendering URLs index page");
         String flash = ctx.consumeSessionAttribute(FLASH_SESSION_ATTRIBUTE);
         String flashType = ctx.consumeSessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE);
 
-        List<Url> urls = UrlsRepository.getEntities();
-        Map<Long, UrlCheck> lastUrlsChecks = UrlChecksRepository.getLastUrlsChecks();
+        Long after = ctx.queryParamAsClass("after", Long.class).allowNullable().get();
+        Long before = ctx.queryParamAsClass("before", Long.class).allowNullable().get();
+        int perPage = Math.clamp(ctx.queryParamAsClass("per", Integer.class).getOrDefault(DEFAULT_PER_PAGE),
+                1, MAX_PER_PAGE);
+
+        List<Url> urls;
+        boolean hasNewer;
+        boolean hasOlder;
+
+        if (before != null) {
+            urls = UrlsRepository.findNewerThan(before, perPage + 1);
+            hasNewer = urls.size() > perPage;
+            hasOlder = true;
+            if (hasNewer) {
+                urls.removeFirst();
+            }
+        } else {
+            urls = UrlsRepository.findOlderThan(after, perPage + 1);
+            hasNewer = after != null;
+            hasOlder = urls.size() > perPage;
+            if (hasOlder) {
+                urls.removeLast();
+            }
+        }
+
+        List<Long> urlIds = urls.stream()
+                .map(Url::getId)
+                .toList();
+        Map<Long, UrlCheck> lastUrlsChecks = UrlChecksRepository.getLastUrlsChecks(urlIds);
+
+        Long newerCursor = hasNewer && !urls.isEmpty() ? urls.getFirst().getId() : null;
+        Long olderCursor = hasOlder && !urls.isEmpty() ? urls.getLast().getId() : null;
 
-        UrlsPage page = new UrlsPage(urls, lastUrlsChecks);
+        UrlsPage page = new UrlsPage(urls, lastUrlsChecks, currentProgress, newerCursor, olderCursor, perPage);
         page.setFlash(flash);
         page.setFlashType(flashType);
 
@@ -85,12 +127,26 @@ public class UrlsController extends BaseController {
 
     public static void show(Context ctx) throws SQLException {
         Long id = ctx.pathParamAsClass("id", Long.class).get();
+        if (isNotModified(ctx, "url-" + id)) {
+            log.debug("URL {} page not modified", id);
+            return;
+        }
+
+        Long before = ctx.queryParamAsClass("before", Long.class).allowNullable().get();
+        int perPage = Math.clamp(ctx.queryParamAsClass("per", Integer.class).getOrDefault(DEFAULT_PER_PAGE),
+                1, MAX_PER_PAGE);
 
         Url url = UrlsRepository.find(id)
                 .orElseThrow(() -> new NotFoundResponse("Url not found"));
-        List<UrlCheck> urlChecks = UrlChecksRepository.findChecksByUrlId(id);
+        List<UrlCheck> urlChecks = new ArrayList<>(UrlChecksRepository.findChecksPage(id, before, perPage + 1));
 
-        UrlPage page = new UrlPage(url, urlChecks);
+        boolean hasOlder = urlChecks.size() > perPage;
+        if (hasOlder) {
+            urlChecks.removeLast();
+        }
+        Long olderCursor = hasOlder ? urlChecks.getLast().getId() : null;
+
+        UrlPage page = new UrlPage(url, urlChecks, olderCursor, perPage);
 
         String flash = ctx.consumeSessionAttribute(FLASH_SESSION_ATTRIBUTE);
         String flashType = ctx.consumeSessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE);
@@ -100,16 +156,4 @@ public class UrlsController extends BaseController {
 
         ctx.render("urls/show.jte", model("page", page));
     }
-
-    public static String getNormalizedUrl(URL url) {
-        String protocol = url.getProtocol();
-        String host = url.getHost();
-        String port = url.getPort() != -1
-                ? String.format(":%d", url.getPort())
-                    .toLowerCase()
-                : "";
-
-        return String.format("%s://%s%s", protocol, host, port);
-    }
 }
-
@@ -0,0 +1,146 @@
+package hexlet.code.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gg.jte.output.WriterOutput;
+import hexlet.code.App;
+import hexlet.code.dto.urls.UrlRow;
+import hexlet.code.dto.urls.UrlsStreamPage;
+import hexlet.code.repository.UrlsRepository;
+import hexlet.code.util.Env;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static io.javalin.rendering.template.TemplateUtil.model;
+
+@Slf4j
+public class UrlsExportController extends BaseController {
+    private static final int DEFAULT_FETCH_SIZE = 500;
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private static final String CSV_FORMAT = "csv";
+    private static final String NDJSON_FORMAT = "ndjson";
+    private static final String CSV_HEADER = "id,name,created_at,last_status_code,last_checked_at\n";
+
+    private static final String HTML_CONTENT_TYPE = "text/html; charset=utf-8";
+    private static final String CSV_CONTENT_TYPE = "text/csv; charset=utf-8";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson; charset=utf-8";
+
+    private static final int FETCH_SIZE = Env.getInt("EXPORT_FETCH_SIZE", DEFAULT_FETCH_SIZE);
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private record ExportedUrl(long id, String name, String createdAt, Integer lastStatusCode,
+                               String lastCheckedAt) {
+        static ExportedUrl of(UrlRow row) {
+            return new ExportedUrl(
+                    row.url().getId(),
+                    row.url().getName(),
+                    row.url().getCreatedAt().toString(),
+                    row.lastCheck() != null ? row.lastCheck().getStatusCode() : null,
+                    row.lastCheck() != null ? row.lastCheck().getCreatedAt().toString() : null);
+        }
+    }
+
+    public static void stream(Context ctx) throws SQLException, IOException {
+        log.info("Streaming URLs index page, fetch size: {}", FETCH_SIZE);
+        String flash = ctx.consumeSessionAttribute(FLASH_SESSION_ATTRIBUTE);
+        String flashType = ctx.consumeSessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE);
+
+        ctx.contentType(HTML_CONTENT_TYPE);
+        try (Stream<UrlRow> rows = UrlsRepository.streamWithLastChecks(FETCH_SIZE);
+             Writer writer = responseWriter(ctx)) {
+
+            UrlsStreamPage page = new UrlsStreamPage(flushing(rows, writer));
+            page.setFlash(flash);
+            page.setFlashType(flashType);
+
+            App.getTemplateEngine().render("urls/stream.jte", model("page", page), new WriterOutput(writer));
+        }
+    }
+
+    public static void export(Context ctx) throws SQLException, IOException {
+        String format = ctx.queryParamAsClass("format", String.class).getOrDefault(CSV_FORMAT);
+        if (!CSV_FORMAT.equals(format) && !NDJSON_FORMAT.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+
+        log.info("Exporting URLs as {}, fetch size: {}", format, FETCH_SIZE);
+        ctx.contentType(CSV_FORMAT.equals(format) ? CSV_CONTENT_TYPE : NDJSON_CONTENT_TYPE);
+        ctx.header(Header.CONTENT_DISPOSITION, String.format("attachment; filename=\"urls.%s\"", format));
+
+        long exported = 0;
+        try (Stream<UrlRow> rows = UrlsRepository.streamWithLastChecks(FETCH_SIZE);
+             Writer writer = responseWriter(ctx)) {
+
+            if (CSV_FORMAT.equals(format)) {
+                writer.write(CSV_HEADER);
+            }
+
+            Iterator<UrlRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                UrlRow row = iterator.next();
+                writer.write(CSV_FORMAT.equals(format) ? toCsv(row) : toJson(row));
+                writer.write('\n');
+
+                exported++;
+                if (exported == 1 || exported % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        log.info("Exported {} URLs as {}", exported, format);
+    }
+
+    private static Writer responseWriter(Context ctx) {
+        return new BufferedWriter(new OutputStreamWriter(ctx.outputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static Iterable<UrlRow> flushing(Stream<UrlRow> rows, Writer writer) {
+        AtomicLong rendered = new AtomicLong();
+
+        // the first flush sends the page head while the remaining rows are still being read
+        return rows.peek(row -> {
+            long count = rendered.incrementAndGet();
+            if (count == 1 || count % FLUSH_EVERY_ROWS == 0) {
+                try {
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        })::iterator;
+    }
+
+    private static String toCsv(UrlRow row) {
+        ExportedUrl url = ExportedUrl.of(row);
+        return String.join(",",
+                String.valueOf(url.id()),
+                escapeCsv(url.name()),
+                url.createdAt(),
+                url.lastStatusCode() != null ? String.valueOf(url.lastStatusCode()) : "",
+                url.lastCheckedAt() != null ? url.lastCheckedAt() : "");
+    }
+
+    private static String toJson(UrlRow row) throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(ExportedUrl.of(row));
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,115 @@
+package hexlet.code.controller.api;
+
+import hexlet.code.check.CheckJobQueue;
+import hexlet.code.dto.api.CreateUrlRequest;
+import hexlet.code.dto.api.ErrorResponse;
+import hexlet.code.dto.api.UrlCheckResponse;
+import hexlet.code.dto.api.UrlChecksResponse;
+import hexlet.code.dto.api.UrlResponse;
+import hexlet.code.dto.api.UrlsResponse;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlsRepository;
+import hexlet.code.util.UrlNormalizer;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import io.javalin.http.NotFoundResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+public class UrlsApiController {
+    private static final int DEFAULT_PER_PAGE = 20;
+    private static final int MAX_PER_PAGE = 100;
+
+    public static void create(Context ctx) throws SQLException {
+        CreateUrlRequest request = ctx.bodyValidator(CreateUrlRequest.class)
+                .check(body -> body.url() != null, "url is required")
+                .get();
+
+        String normalizedUrl = UrlNormalizer.normalize(request.url())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid URL: " + request.url()));
+
+        Url url = new Url(normalizedUrl);
+        boolean created = UrlsRepository.saveIfAbsent(url);
+        log.info("API request to create URL {}, created: {}", normalizedUrl, created);
+
+        ctx.status(created ? HttpStatus.CREATED : HttpStatus.OK);
+        ctx.json(UrlResponse.from(url, null));
+    }
+
+    public static void index(Context ctx) throws SQLException {
+        Long after = ctx.queryParamAsClass("after", Long.class).allowNullable().get();
+        int perPage = Math.clamp(ctx.queryParamAsClass("per", Integer.class).getOrDefault(DEFAULT_PER_PAGE),
+                1, MAX_PER_PAGE);
+
+        List<Url> urls = UrlsRepository.findOlderThan(after, perPage + 1);
+        boolean hasMore = urls.size() > perPage;
+        if (hasMore) {
+            urls.removeLast();
+        }
+
+        List<Long> urlIds = urls.stream()
+                .map(Url::getId)
+                .toList();
+        Map<Long, UrlCheck> lastUrlsChecks = UrlChecksRepository.getLastUrlsChecks(urlIds);
+
+        List<UrlResponse> body = urls.stream()
+                .map(url -> UrlResponse.from(url, lastUrlsChecks.get(url.getId())))
+                .toList();
+        Long nextCursor = hasMore ? urls.getLast().getId() : null;
+
+        ctx.json(new UrlsResponse(body, nextCursor));
+    }
+
+    public static void show(Context ctx) throws SQLException {
+        Url url = findUrl(ctx);
+        UrlCheck lastCheck = UrlChecksRepository.findLastCheck(url.getId()).orElse(null);
+
+        ctx.json(UrlResponse.from(url, lastCheck));
+    }
+
+    public static void checks(Context ctx) throws SQLException {
+        Url url = findUrl(ctx);
+        Long before = ctx.queryParamAsClass("before", Long.class).allowNullable().get();
+        int perPage = Math.clamp(ctx.queryParamAsClass("per", Integer.class).getOrDefault(DEFAULT_PER_PAGE),
+                1, MAX_PER_PAGE);
+
+        List<UrlCheck> urlChecks = UrlChecksRepository.findChecksPage(url.getId(), before, perPage + 1);
+        boolean hasMore = urlChecks.size() > perPage;
+        List<UrlCheckResponse> body = urlChecks.stream()
+                .limit(perPage)
+                .map(UrlCheckResponse::from)
+                .toList();
+        Long nextCursor = hasMore ? body.getLast().id() : null;
+
+        ctx.json(new UrlChecksResponse(body, nextCursor));
+    }
+
+    public static void createCheck(Context ctx) throws SQLException {
+        Url url = findUrl(ctx);
+        Optional<UrlCheck> urlCheck = CheckJobQueue.enqueue(url);
+
+        if (urlCheck.isEmpty()) {
+            log.warn("API check of URL {} rejected, check queue is full", url.getName());
+            ctx.status(HttpStatus.SERVICE_UNAVAILABLE);
+            ctx.json(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.getMessage(), "Check queue is full"));
+            return;
+        }
+
+        ctx.status(HttpStatus.ACCEPTED);
+        ctx.json(UrlCheckResponse.from(urlCheck.get()));
+    }
+
+    private static Url findUrl(Context ctx) throws SQLException {
+        Long id = ctx.pathParamAsClass("id", Long.class).get();
+
+        return UrlsRepository.find(id)
+                .orElseThrow(() -> new NotFoundResponse("URL not found"));
+    }
+}
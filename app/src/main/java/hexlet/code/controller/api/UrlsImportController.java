@@ -0,0 +1,126 @@
+package hexlet.code.controller.api;
+
+import hexlet.code.dto.api.UrlsImportResponse;
+import hexlet.code.repository.UrlsRepository;
+import hexlet.code.util.Env;
+import hexlet.code.util.UrlNormalizer;
+import io.javalin.http.Context;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+@Slf4j
+public class UrlsImportController {
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final int MAX_LINE_LENGTH = 2048;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private static final int CHUNK_SIZE = Env.getInt("IMPORT_CHUNK_SIZE", DEFAULT_CHUNK_SIZE);
+
+    public static void importUrls(Context ctx) throws IOException, SQLException {
+        long startedAt = System.nanoTime();
+        long inserted = 0;
+        long duplicates = 0;
+        long invalid = 0;
+        long lineNumber = 0;
+
+        // the body is read straight from the request, so only one line and one chunk are held in memory at a time
+        Set<String> chunk = new LinkedHashSet<>();
+        StringBuilder line = new StringBuilder();
+        try (Reader reader = new BufferedReader(new InputStreamReader(ctx.req().getInputStream(),
+                StandardCharsets.UTF_8))) {
+
+            while (readLine(reader, line)) {
+                lineNumber++;
+                if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == BYTE_ORDER_MARK) {
+                    line.deleteCharAt(0);
+                }
+
+                String value = firstColumn(line);
+                if (value.isBlank() || lineNumber == 1 && isHeader(value)) {
+                    continue;
+                }
+
+                Optional<String> normalizedUrl = line.length() <= MAX_LINE_LENGTH
+                        ? UrlNormalizer.normalize(value)
+                        : Optional.empty();
+                if (normalizedUrl.isEmpty()) {
+                    invalid++;
+                } else if (!chunk.add(normalizedUrl.get())) {
+                    duplicates++;
+                }
+
+                if (chunk.size() >= CHUNK_SIZE) {
+                    int saved = UrlsRepository.saveAllIfAbsent(chunk);
+                    inserted += saved;
+                    duplicates += chunk.size() - saved;
+                    chunk.clear();
+                }
+            }
+        }
+
+        int saved = UrlsRepository.saveAllIfAbsent(chunk);
+        inserted += saved;
+        duplicates += chunk.size() - saved;
+
+        log.info("Imported {} lines in {} ms: {} inserted, {} duplicates, {} invalid", lineNumber,
+                (System.nanoTime() - startedAt) / 1_000_000, inserted, duplicates, invalid);
+        ctx.json(new UrlsImportResponse(inserted, duplicates, invalid));
+    }
+
+    // reads up to the next line break, keeping at most MAX_LINE_LENGTH + 1 characters of the line
+    private static boolean readLine(Reader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int c = reader.read();
+        if (c < 0) {
+            return false;
+        }
+
+        while (c >= 0 && c != '\n') {
+            if (line.length() <= MAX_LINE_LENGTH) {
+                line.append((char) c);
+            }
+            c = reader.read();
+        }
+        return true;
+    }
+
+    // a quoted field may contain commas and doubled quotes, fields spanning several lines are not supported
+    private static String firstColumn(StringBuilder line) {
+        int start = 0;
+        while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+
+        if (start == line.length() || line.charAt(start) != '"') {
+            int comma = line.indexOf(",", start);
+            return (comma >= 0 ? line.substring(start, comma) : line.substring(start)).strip();
+        }
+
+        StringBuilder value = new StringBuilder();
+        for (int i = start + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c != '"') {
+                value.append(c);
+            } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                value.append('"');
+                i++;
+            } else {
+                break;
+            }
+        }
+        return value.toString().strip();
+    }
+
+    private static boolean isHeader(String value) {
+        return value.equalsIgnoreCase("url") || value.equalsIgnoreCase("name");
+    }
+}
@@ -1,81 +1,72 @@
 package hexlet.code.controller.urls;
 
+import hexlet.code.check.BulkCheckJob;
+import hexlet.code.check.CheckJobQueue;
 import hexlet.code.controller.BaseController;
+import hexlet.code.dto.urls.BulkCheckProgress;
 import hexlet.code.model.Url;
 import hexlet.code.model.UrlCheck;
-import hexlet.code.repository.UrlChecksRepository;
 import hexlet.code.repository.UrlsRepository;
 import hexlet.code.util.NamedRoutes;
 import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
 import io.javalin.http.NotFoundResponse;
-import kong.unirest.core.HttpResponse;
-import kong.unirest.core.Unirest;
-import kong.unirest.core.UnirestException;
 import lombok.extern.slf4j.Slf4j;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
 
 import java.sql.SQLException;
+import java.util.Optional;
 
 @Slf4j
 public class UrlChecksController extends BaseController {
 
-    private static final String SUCCESSFULLY_CHECKED_URL_FLASH_MESSAGE = "Страница успешно проверена";
-    private static final String UNSUCCESSFULLY_CHECKED_URL_FLASH_MESSAGE = "Возникла ошибка при проверке страницы";
+    private static final String QUEUED_CHECK_FLASH_MESSAGE = "Проверка поставлена в очередь";
+    private static final String QUEUE_FULL_FLASH_MESSAGE = "Слишком много проверок в очереди, попробуйте позже";
+    private static final String BULK_CHECK_STARTED_FLASH_MESSAGE = "Проверка всех страниц запущена";
+    private static final String BULK_CHECK_RUNNING_FLASH_MESSAGE = "Проверка всех страниц уже выполняется";
 
     public static void create(Context ctx) throws SQLException {
-        log.info("Attempting to create URL from request");
+        log.info("Attempting to create URL check from request");
 
         Long urlId = ctx.pathParamAsClass("id", Long.class).get();
         Url url = UrlsRepository.find(urlId)
                 .orElseThrow(() -> new NotFoundResponse("URL not found"));
 
-        HttpResponse<String> response;
-        String responseBody;
-        try {
-            response = Unirest.get(url.getName())
-                    .asString();
-            responseBody = response.getBody();
+        Optional<UrlCheck> urlCheck = CheckJobQueue.enqueue(url);
 
+        if (urlCheck.isPresent()) {
+            ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, QUEUED_CHECK_FLASH_MESSAGE);
+            ctx.sessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE, SUCCESS_FLASH_TYPE);
+        } else {
+            ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, QUEUE_FULL_FLASH_MESSAGE);
+            ctx.sessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE, ERROR_FLASH_TYPE);
+        }
 
-            if (responseBody == null || responseBody.isEmpty()) {
-                log.error("Empty response body for URL: {}", url.getName());
-                throw new IllegalStateException("Response body is empty for URL: " + url.getName());
-            }
-
-            Document document = Jsoup.parse(responseBody);
-
-            int statusCode = response.getStatus();
-            log.info("Checking url, status code: {}", statusCode);
-            String titleContent = document.title();
-
-            Element h1Tag = document.selectFirst("h1");
-            String h1Content = h1Tag != null ? h1Tag.text() : "";
-
-            Element descriptionMetaTag = document.selectFirst("meta[name=description]");
-            String descriptionContent = descriptionMetaTag != null ? descriptionMetaTag.attr("content") : "";
+        ctx.redirect(NamedRoutes.urlPath(urlId));
+    }
 
-            UrlCheck urlCheck = new UrlCheck(urlId);
-            urlCheck.setStatusCode(statusCode);
-            urlCheck.setTitle(titleContent);
-            urlCheck.setH1(h1Content);
-            urlCheck.setDescription(descriptionContent);
+    public static void createAll(Context ctx) {
+        log.info("Attempting to start bulk check of all URLs");
 
-            UrlChecksRepository.save(urlCheck);
+        Optional<BulkCheckProgress> progress = BulkCheckJob.start();
 
-            ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, SUCCESSFULLY_CHECKED_URL_FLASH_MESSAGE);
+        if (progress.isPresent()) {
+            ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, BULK_CHECK_STARTED_FLASH_MESSAGE);
             ctx.sessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE, SUCCESS_FLASH_TYPE);
+        } else {
+            ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, BULK_CHECK_RUNNING_FLASH_MESSAGE);
+            ctx.sessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE, ALERT_FLASH_TYPE);
+        }
 
-            ctx.redirect(NamedRoutes.urlPath(urlId));
-
-        } catch (UnirestException | IllegalStateException e) {
-            log.error("Error during URL create: {}", e.getMessage(), e);
+        ctx.redirect(NamedRoutes.urlsPath());
+    }
 
-            ctx.sessionAttribute(FLASH_SESSION_ATTRIBUTE, UNSUCCESSFULLY_CHECKED_URL_FLASH_MESSAGE);
-            ctx.sessionAttribute(FLASH_TYPE_SESSION_ATTRIBUTE, ERROR_FLASH_TYPE);
+    public static void showBulkProgress(Context ctx) {
+        Optional<BulkCheckProgress> progress = BulkCheckJob.getCurrentProgress();
 
-            ctx.redirect(NamedRoutes.urlPath(urlId));
+        if (progress.isPresent()) {
+            ctx.json(progress.get());
+        } else {
+            ctx.status(HttpStatus.NO_CONTENT);
         }
     }
 }
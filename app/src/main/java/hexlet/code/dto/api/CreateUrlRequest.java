@@ -0,0 +1,4 @@
+package hexlet.code.dto.api;
+
+public record CreateUrlRequest(String url) {
+}
@@ -0,0 +1,26 @@
+package hexlet.code.dto.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import hexlet.code.model.UrlCheck;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UrlCheckResponse(
+        long id,
+        String status,
+        Integer statusCode,
+        String title,
+        String h1,
+        String description,
+        String createdAt
+) {
+    public static UrlCheckResponse from(UrlCheck urlCheck) {
+        return new UrlCheckResponse(
+                urlCheck.getId(),
+                urlCheck.getStatus().name(),
+                urlCheck.getStatusCode() != 0 ? urlCheck.getStatusCode() : null,
+                urlCheck.getTitle(),
+                urlCheck.getH1(),
+                urlCheck.getDescription(),
+                urlCheck.getCreatedAt() != null ? urlCheck.getCreatedAt().toString() : null);
+    }
+}
@@ -0,0 +1,9 @@
+package hexlet.code.dto.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UrlChecksResponse(List<UrlCheckResponse> checks, Long nextCursor) {
+}
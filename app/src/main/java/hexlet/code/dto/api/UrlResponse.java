@@ -0,0 +1,16 @@
+package hexlet.code.dto.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UrlResponse(long id, String name, String createdAt, UrlCheckResponse lastCheck) {
+    public static UrlResponse from(Url url, UrlCheck lastCheck) {
+        return new UrlResponse(
+                url.getId(),
+                url.getName(),
+                url.getCreatedAt().toString(),
+                lastCheck != null ? UrlCheckResponse.from(lastCheck) : null);
+    }
+}
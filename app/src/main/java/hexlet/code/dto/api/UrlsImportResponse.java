@@ -0,0 +1,4 @@
+package hexlet.code.dto.api;
+
+public record UrlsImportResponse(long inserted, long duplicates, long invalid) {
+}
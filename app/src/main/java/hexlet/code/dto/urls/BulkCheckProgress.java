@@ -0,0 +1,13 @@
+package hexlet.code.dto.urls;
+
+public record BulkCheckProgress(
+        String state,
+        long total,
+        long done,
+        long failed,
+        long remaining,
+        String startedAt,
+        String finishedAt,
+        double checksPerSecond
+) {
+}
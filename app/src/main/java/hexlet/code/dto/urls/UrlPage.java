@@ -13,4 +13,6 @@ import java.util.List;
 public class UrlPage extends BasePage {
     private Url url;
     private List<UrlCheck> urlChecks;
+    private Long olderChecksCursor;
+    private int perPage;
 }
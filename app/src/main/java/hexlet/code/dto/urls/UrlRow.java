@@ -0,0 +1,7 @@
+package hexlet.code.dto.urls;
+
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+
+public record UrlRow(Url url, UrlCheck lastCheck) {
+}
@@ -14,4 +14,8 @@ import java.util.Map;
 public class UrlsPage extends BasePage {
     private List<Url> urls;
     private Map<Long, UrlCheck> lastUrlsChecks;
+    private BulkCheckProgress bulkCheckProgress;
+    private Long newerCursor;
+    private Long olderCursor;
+    private int perPage;
 }
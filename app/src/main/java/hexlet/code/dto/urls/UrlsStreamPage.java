@@ -0,0 +1,11 @@
+package hexlet.code.dto.urls;
+
+import hexlet.code.dto.BasePage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UrlsStreamPage extends BasePage {
+    private Iterable<UrlRow> rows;
+}
@@ -0,0 +1,115 @@
+package hexlet.code.metrics;
+
+import hexlet.code.cache.BoundedCache;
+import hexlet.code.cache.Caches;
+import hexlet.code.check.CheckJobQueue;
+import hexlet.code.check.FetchResult;
+import hexlet.code.check.RecheckScheduler;
+import hexlet.code.repository.UrlChecksWriteBehind;
+import io.javalin.http.Context;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class AppMetrics {
+    private static final PrometheusMeterRegistry REGISTRY = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    public static PrometheusMeterRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    public static String scrape() {
+        return REGISTRY.scrape();
+    }
+
+    public static synchronized void registerGauges() {
+        bindCache(Caches.URLS);
+        bindCache(Caches.URL_CHECKS);
+
+        Gauge.builder("check.queue.size", CheckJobQueue::getQueueSize)
+                .description("URL checks waiting for a worker")
+                .register(REGISTRY);
+        Gauge.builder("check.write_behind.pending", UrlChecksWriteBehind::getPendingCount)
+                .description("Finished URL checks waiting to be written to the database")
+                .register(REGISTRY);
+        Gauge.builder("check.recheck.scheduled", RecheckScheduler::getScheduledCount)
+                .description("URLs waiting for a scheduled re-check")
+                .register(REGISTRY);
+    }
+
+    public static void recordRequest(Context ctx, float executionTimeMillis) {
+        String route = ctx.endpointHandlerPath();
+
+        Timer.builder("http.server.requests")
+                .description("HTTP request latency per route")
+                .tag("method", ctx.method().name())
+                .tag("route", route == null || route.isBlank() ? UNMATCHED_ROUTE : route)
+                .tag("status", String.valueOf(ctx.statusCode()))
+                .publishPercentileHistogram()
+                .register(REGISTRY)
+                .record(Duration.ofNanos((long) (executionTimeMillis * TimeUnit.MILLISECONDS.toNanos(1))));
+    }
+
+    public static Timer queryTimer(String query, String outcome) {
+        return Timer.builder("repository.query")
+                .description("Database query latency per repository method")
+                .tag("query", query)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(REGISTRY);
+    }
+
+    public static void recordFetch(FetchResult result) {
+        Timer.builder("check.fetch")
+                .description("Outbound fetch latency of URL checks")
+                .publishPercentileHistogram()
+                .register(REGISTRY)
+                .record(result.timings().totalMillis(), TimeUnit.MILLISECONDS);
+        Timer.builder("check.fetch.first_byte")
+                .description("Time from sending a check request to receiving the response headers, connect included")
+                .register(REGISTRY)
+                .record(result.timings().firstByteMillis(), TimeUnit.MILLISECONDS);
+        Counter.builder("check.responses")
+                .description("Responses of checked URLs by status code")
+                .tag("status", String.valueOf(result.statusCode()))
+                .register(REGISTRY)
+                .increment();
+    }
+
+    public static Timer parseTimer() {
+        return Timer.builder("check.parse")
+                .description("Time spent reading and parsing the body of a checked page")
+                .publishPercentileHistogram()
+                .register(REGISTRY);
+    }
+
+    public static void recordCheckFailure(Exception e) {
+        Counter.builder("check.failures")
+                .description("Failed URL checks by exception type")
+                .tag("reason", e.getClass().getSimpleName())
+                .register(REGISTRY)
+                .increment();
+    }
+
+    private static void bindCache(BoundedCache<?, ?> cache) {
+        Gauge.builder("cache.size", cache, c -> c.getStats().size())
+                .tag("cache", cache.getName())
+                .register(REGISTRY);
+        FunctionCounter.builder("cache.hits", cache, c -> c.getStats().hits())
+                .tag("cache", cache.getName())
+                .register(REGISTRY);
+        FunctionCounter.builder("cache.misses", cache, c -> c.getStats().misses())
+                .tag("cache", cache.getName())
+                .register(REGISTRY);
+        FunctionCounter.builder("cache.evictions", cache, c -> c.getStats().evictions())
+                .tag("cache", cache.getName())
+                .register(REGISTRY);
+    }
+}
@@ -0,0 +1,281 @@
+package hexlet.code.migration;
+
+import hexlet.code.App;
+import hexlet.code.repository.Dialect;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+public class Migrator {
+    private static final String MIGRATIONS_LOCATION = "db/migration/";
+    private static final Pattern SCRIPT_NAME_PATTERN = Pattern.compile("^V(\\d+)__(\\w+)\\.sql$");
+    private static final Pattern STATEMENT_END_PATTERN = Pattern.compile(";\\s*(?:\\n|$)");
+    private static final Pattern BATCH_PATTERN = Pattern.compile("^--\\s*batch:\\s*(\\w+)\\s*$", Pattern.MULTILINE);
+    private static final String NO_TRANSACTION_DIRECTIVE = "-- no-transaction";
+    private static final String CONCURRENTLY_PLACEHOLDER = "${concurrently}";
+    private static final int BATCH_SIZE = 1000;
+    private static final long ADVISORY_LOCK_KEY = 7_202_100_001L;
+
+    private static final List<String> SCRIPTS = List.of(
+            "V1__create_tables.sql",
+            "V2__add_url_check_status.sql",
+            "V3__add_last_check_pointer.sql",
+            "V4__add_lookup_indexes.sql",
+            "V5__add_check_validators.sql",
+            "V6__add_check_content_hash.sql"
+    );
+
+    // a script starting with "-- no-transaction" runs statement by statement with auto-commit, so PostgreSQL can
+    // build its indexes CONCURRENTLY; every statement of such a script has to be safe to run again
+    private record Migration(int version, String description, boolean transactional, List<Step> steps,
+                             String checksum) { }
+
+    // a step marked "-- batch: <table>" binds an id range to its two parameters and runs once per range
+    private record Step(String sql, String batchTable) { }
+
+    private record AppliedMigration(int version, String checksum) { }
+
+    @FunctionalInterface
+    private interface MigrationLock extends AutoCloseable {
+        @Override
+        void close() throws SQLException;
+    }
+
+    public static void migrate(DataSource dataSource) throws SQLException, IOException {
+        log.info("Running database migrations");
+
+        try (Connection connection = dataSource.getConnection()) {
+            Dialect dialect = Dialect.fromJdbcUrl(connection.getMetaData().getURL());
+            List<Migration> migrations = loadMigrations(dialect);
+
+            try (MigrationLock lock = lock(dataSource, connection, dialect)) {
+                createHistoryTable(connection);
+                Map<Integer, AppliedMigration> appliedMigrations = findAppliedMigrations(connection);
+
+                int applied = 0;
+                for (Migration migration : migrations) {
+                    AppliedMigration appliedMigration = appliedMigrations.get(migration.version());
+
+                    if (appliedMigration == null) {
+                        apply(connection, migration);
+                        applied++;
+                    } else if (!appliedMigration.checksum().equals(migration.checksum())) {
+                        throw new IllegalStateException(String.format(
+                                "Checksum mismatch for migration V%d: applied %s, found %s",
+                                migration.version(), appliedMigration.checksum(), migration.checksum()));
+                    }
+                }
+
+                log.info("Database migrations completed, {} applied", applied);
+            }
+        }
+    }
+
+    // instances starting together wait here, the first one migrates and the others find nothing left to apply
+    private static MigrationLock lock(DataSource dataSource, Connection connection, Dialect dialect)
+            throws SQLException {
+        if (dialect == Dialect.POSTGRES) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_advisory_lock(?)")) {
+                preparedStatement.setLong(1, ADVISORY_LOCK_KEY);
+                preparedStatement.execute();
+            }
+
+            return () -> {
+                try (PreparedStatement preparedStatement = connection.prepareStatement(
+                        "SELECT pg_advisory_unlock(?)")) {
+                    preparedStatement.setLong(1, ADVISORY_LOCK_KEY);
+                    preparedStatement.execute();
+                }
+            };
+        }
+
+        // H2 has no advisory locks, a row locked by a transaction on a separate connection serves instead
+        Connection lockConnection = dataSource.getConnection();
+        try (Statement statement = lockConnection.createStatement()) {
+            // the row is created with the table, so instances starting together cannot both insert it
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_history_lock AS SELECT 1 AS id");
+            lockConnection.setAutoCommit(false);
+            statement.executeQuery("SELECT id FROM schema_history_lock FOR UPDATE").close();
+        } catch (SQLException e) {
+            lockConnection.close();
+            throw e;
+        }
+
+        return () -> {
+            try {
+                lockConnection.rollback();
+            } finally {
+                lockConnection.close();
+            }
+        };
+    }
+
+    private static void createHistoryTable(Connection connection) throws SQLException {
+        String sql = """
+                CREATE TABLE IF NOT EXISTS schema_history (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    checksum VARCHAR(64) NOT NULL,
+                    installed_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                    execution_time_ms BIGINT NOT NULL
+                )
+                """;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static Map<Integer, AppliedMigration> findAppliedMigrations(Connection connection) throws SQLException {
+        String sql = "SELECT version, checksum FROM schema_history";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            Map<Integer, AppliedMigration> appliedMigrations = new TreeMap<>();
+            while (resultSet.next()) {
+                int version = resultSet.getInt("version");
+                appliedMigrations.put(version, new AppliedMigration(version, resultSet.getString("checksum")));
+            }
+
+            return appliedMigrations;
+        }
+    }
+
+    private static List<Migration> loadMigrations(Dialect dialect) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+
+        for (String scriptName : SCRIPTS) {
+            Matcher matcher = SCRIPT_NAME_PATTERN.matcher(scriptName);
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Invalid migration script name: " + scriptName);
+            }
+
+            String script = App.readResourceFile(MIGRATIONS_LOCATION + scriptName)
+                    .replace("\r\n", "\n");
+            int version = Integer.parseInt(matcher.group(1));
+            String description = matcher.group(2).replace('_', ' ');
+            boolean transactional = !script.startsWith(NO_TRANSACTION_DIRECTIVE);
+
+            migrations.add(new Migration(version, description, transactional, parseSteps(script, dialect),
+                    checksum(script)));
+        }
+
+        return migrations;
+    }
+
+    private static List<Step> parseSteps(String script, Dialect dialect) {
+        String concurrently = dialect == Dialect.POSTGRES ? "CONCURRENTLY" : "";
+        List<Step> steps = new ArrayList<>();
+
+        for (String sql : STATEMENT_END_PATTERN.split(script)) {
+            if (sql.lines().allMatch(line -> line.isBlank() || line.strip().startsWith("--"))) {
+                continue;
+            }
+
+            Matcher batch = BATCH_PATTERN.matcher(sql);
+            String batchTable = batch.find() ? batch.group(1) : null;
+            steps.add(new Step(sql.replace(CONCURRENTLY_PLACEHOLDER, concurrently), batchTable));
+        }
+
+        return steps;
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("Applying migration V{}: {}", migration.version(), migration.description());
+        long startedAt = System.currentTimeMillis();
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(!migration.transactional());
+
+        String sql = """
+                INSERT INTO schema_history (version, description, checksum, installed_at, execution_time_ms)
+                VALUES (?, ?, ?, ?, ?)
+                """;
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            for (Step step : migration.steps()) {
+                execute(connection, step);
+            }
+
+            preparedStatement.setInt(1, migration.version());
+            preparedStatement.setString(2, migration.description());
+            preparedStatement.setString(3, migration.checksum());
+            preparedStatement.setTimestamp(4, Timestamp.from(Instant.now()));
+            preparedStatement.setLong(5, System.currentTimeMillis() - startedAt);
+            preparedStatement.executeUpdate();
+
+            if (migration.transactional()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            log.error("Migration V{} failed: {}", migration.version(), e.getMessage(), e);
+            if (migration.transactional()) {
+                connection.rollback();
+            }
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        log.info("Migration V{} applied in {} ms", migration.version(), System.currentTimeMillis() - startedAt);
+    }
+
+    private static void execute(Connection connection, Step step) throws SQLException {
+        if (step.batchTable() == null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(step.sql());
+            }
+            return;
+        }
+
+        long minId;
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     String.format("SELECT MIN(id), MAX(id) FROM %s", step.batchTable()))) {
+            resultSet.next();
+            minId = resultSet.getLong(1);
+            maxId = resultSet.getLong(2);
+        }
+
+        // with auto-commit every range is its own short transaction, so no row stays locked for the whole table
+        long updated = 0;
+        try (PreparedStatement preparedStatement = connection.prepareStatement(step.sql())) {
+            for (long fromId = minId; fromId <= maxId; fromId += BATCH_SIZE) {
+                preparedStatement.setLong(1, fromId);
+                preparedStatement.setLong(2, fromId + BATCH_SIZE - 1);
+                updated += preparedStatement.executeUpdate();
+            }
+        }
+        log.info("Batched migration step updated {} rows of {}", updated, step.batchTable());
+    }
+
+    private static String checksum(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package hexlet.code.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum CheckStatus {
+    PENDING("В очереди"),
+    RUNNING("Выполняется"),
+    FINISHED("Завершена"),
+    FAILED("Ошибка");
+
+    private final String label;
+}
@@ -22,4 +22,10 @@ public class Url {
     public Url(String name) {
         this.name = name;
     }
+
+    public Url(Url url) {
+        this.id = url.getId();
+        this.name = url.getName();
+        this.createdAt = url.getCreatedAt();
+    }
 }
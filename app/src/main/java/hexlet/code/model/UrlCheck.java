@@ -19,10 +19,30 @@ public class UrlCheck {
     private String h1;
     private String description;
     private Long urlId;
+    private CheckStatus status = CheckStatus.FINISHED;
+    private String etag;
+    private String lastModified;
+    private String contentHash;
+    private Long contentCheckId;
 
     private Instant createdAt;
 
     public UrlCheck(Long urlId) {
         this.urlId = urlId;
     }
+
+    public UrlCheck(UrlCheck urlCheck) {
+        this.id = urlCheck.getId();
+        this.statusCode = urlCheck.getStatusCode();
+        this.title = urlCheck.getTitle();
+        this.h1 = urlCheck.getH1();
+        this.description = urlCheck.getDescription();
+        this.urlId = urlCheck.getUrlId();
+        this.status = urlCheck.getStatus();
+        this.etag = urlCheck.getEtag();
+        this.lastModified = urlCheck.getLastModified();
+        this.contentHash = urlCheck.getContentHash();
+        this.contentCheckId = urlCheck.getContentCheckId();
+        this.createdAt = urlCheck.getCreatedAt();
+    }
 }
@@ -1,12 +1,62 @@
 package hexlet.code.repository;
 
+import hexlet.code.metrics.AppMetrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
-import lombok.Setter;
 
 import com.zaxxer.hikari.HikariDataSource;
 
+import java.sql.SQLException;
+
 public class BaseRepository {
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+
     @Getter
-    @Setter
     private static HikariDataSource dataSource;
+
+    @Getter
+    private static Dialect dialect;
+
+    @FunctionalInterface
+    protected interface SqlQuery<T> {
+        T execute() throws SQLException;
+    }
+
+    @FunctionalInterface
+    protected interface SqlAction {
+        void execute() throws SQLException;
+    }
+
+    public static void setDataSource(HikariDataSource newDataSource) {
+        dataSource = newDataSource;
+        dialect = Dialect.fromJdbcUrl(newDataSource.getJdbcUrl());
+    }
+
+    protected static boolean isUniqueViolation(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            if (UNIQUE_VIOLATION_STATE.equals(current.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected static <T> T timed(String query, SqlQuery<T> sqlQuery) throws SQLException {
+        Timer.Sample sample = Timer.start(AppMetrics.getRegistry());
+        String outcome = "error";
+        try {
+            T result = sqlQuery.execute();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(AppMetrics.queryTimer(query, outcome));
+        }
+    }
+
+    protected static void timed(String query, SqlAction sqlAction) throws SQLException {
+        timed(query, () -> {
+            sqlAction.execute();
+            return null;
+        });
+    }
 }
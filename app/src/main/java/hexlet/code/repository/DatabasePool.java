@@ -0,0 +1,90 @@
+package hexlet.code.repository;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import hexlet.code.util.Env;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+public class DatabasePool {
+    private static final String POOL_NAME = "page-analyzer-db";
+    private static final int DEFAULT_MIN_IDLE = 2;
+    private static final long DEFAULT_CONNECTION_TIMEOUT_MILLIS = 5_000;
+    private static final long DEFAULT_VALIDATION_TIMEOUT_MILLIS = 2_000;
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 600_000;
+    private static final long DEFAULT_MAX_LIFETIME_MILLIS = 1_800_000;
+    private static final long DEFAULT_KEEPALIVE_MILLIS = 120_000;
+    private static final long DEFAULT_LEAK_DETECTION_THRESHOLD_MILLIS = 600_000;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 256;
+    private static final int DEFAULT_PREPARE_THRESHOLD = 1;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    public static HikariConfig createConfig(String jdbcUrl, int maximumPoolSize) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName(POOL_NAME);
+        hikariConfig.setJdbcUrl(jdbcUrl);
+        hikariConfig.setMaximumPoolSize(maximumPoolSize);
+        hikariConfig.setMinimumIdle(Env.getInt("DB_MIN_IDLE", Math.min(DEFAULT_MIN_IDLE, maximumPoolSize)));
+        hikariConfig.setConnectionTimeout(Env.getLong("DB_CONNECTION_TIMEOUT_MILLIS",
+                DEFAULT_CONNECTION_TIMEOUT_MILLIS));
+        hikariConfig.setValidationTimeout(Env.getLong("DB_VALIDATION_TIMEOUT_MILLIS",
+                DEFAULT_VALIDATION_TIMEOUT_MILLIS));
+        hikariConfig.setIdleTimeout(Env.getLong("DB_IDLE_TIMEOUT_MILLIS", DEFAULT_IDLE_TIMEOUT_MILLIS));
+        hikariConfig.setMaxLifetime(Env.getLong("DB_MAX_LIFETIME_MILLIS", DEFAULT_MAX_LIFETIME_MILLIS));
+        hikariConfig.setKeepaliveTime(Env.getLong("DB_KEEPALIVE_MILLIS", DEFAULT_KEEPALIVE_MILLIS));
+        // CSV and JSON exports stream from one connection for their whole download, well past a normal query
+        hikariConfig.setLeakDetectionThreshold(Env.getLong("DB_LEAK_DETECTION_THRESHOLD_MILLIS",
+                DEFAULT_LEAK_DETECTION_THRESHOLD_MILLIS));
+
+        int statementCacheSize = Env.getInt("DB_STATEMENT_CACHE_SIZE", DEFAULT_STATEMENT_CACHE_SIZE);
+        if (Dialect.fromJdbcUrl(jdbcUrl) == Dialect.POSTGRES) {
+            // server-side prepared statements are kept per connection by the driver, so they survive pool checkouts
+            hikariConfig.addDataSourceProperty("prepareThreshold",
+                    Env.getInt("DB_PREPARE_THRESHOLD", DEFAULT_PREPARE_THRESHOLD));
+            hikariConfig.addDataSourceProperty("preparedStatementCacheQueries", statementCacheSize);
+        } else {
+            hikariConfig.addDataSourceProperty("QUERY_CACHE_SIZE", statementCacheSize);
+        }
+
+        return hikariConfig;
+    }
+
+    public static void warmUp(HikariDataSource dataSource) throws SQLException {
+        int connectionsToOpen = Math.max(dataSource.getMinimumIdle(), 1);
+        long startedAt = System.nanoTime();
+        List<Connection> connections = new ArrayList<>(connectionsToOpen);
+
+        try {
+            // holding every connection at once makes the pool open new ones instead of handing out the same one
+            for (int i = 0; i < connectionsToOpen; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Database connection failed validation during warm-up");
+                }
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+
+        log.info("Database pool warmed up with {} connections in {} ms",
+                connectionsToOpen, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    public static void close(HikariDataSource dataSource) {
+        if (dataSource == null || dataSource.isClosed()) {
+            return;
+        }
+
+        log.info("Closing database pool, {} connections active",
+                dataSource.getHikariPoolMXBean().getActiveConnections());
+        dataSource.close();
+    }
+}
@@ -0,0 +1,10 @@
+package hexlet.code.repository;
+
+public enum Dialect {
+    H2,
+    POSTGRES;
+
+    public static Dialect fromJdbcUrl(String jdbcUrl) {
+        return jdbcUrl != null && jdbcUrl.startsWith("jdbc:postgresql:") ? POSTGRES : H2;
+    }
+}
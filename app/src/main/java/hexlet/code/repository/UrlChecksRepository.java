@@ -1,4 +1,7 @@
 package hexlet.code.repository;
+import hexlet.code.cache.Caches;
+import hexlet.code.cache.DataVersion;
+import hexlet.code.model.CheckStatus;
 import hexlet.code.model.UrlCheck;
 
 import java.sql.Connection;
@@ -7,16 +10,31 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class UrlChecksRepository extends BaseRepository {
+    private static final String CHECK_COLUMNS = """
+            SELECT url_checks.*, content.title AS content_title, content.h1 AS content_h1,
+                content.description AS content_description
+            FROM url_checks
+            LEFT JOIN url_checks content ON content.id = url_checks.content_check_id
+            """;
+    private static final int RECENT_CHECKS_LIMIT = 100;
+
     public static void save(UrlCheck urlCheck) throws SQLException {
         Long urlId = urlCheck.getUrlId();
         Instant createdAt = Instant.now();
@@ -24,128 +42,494 @@ public class UrlChecksRepository extends BaseRepository {
         log.info("Attempting to save URL create with url ID: {}", urlId);
 
         String sql = """
-                INSERT INTO url_checks (status_code, title, h1, description, url_id, created_at)
-                VALUES (?, ?, ?, ?, ?, ?)
+                INSERT INTO url_checks (status_code, title, h1, description, url_id, status, etag, last_modified,
+                    content_hash, content_check_id, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                 """;
 
-        try (Connection connection = getDataSource().getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        timed("url_checks.save", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql,
+                         Statement.RETURN_GENERATED_KEYS)) {
 
-            preparedStatement.setInt(1, urlCheck.getStatusCode());
-            preparedStatement.setString(2, urlCheck.getTitle());
-            preparedStatement.setString(3, urlCheck.getH1());
-            preparedStatement.setString(4, urlCheck.getDescription());
-            preparedStatement.setLong(5, urlCheck.getUrlId());
-            preparedStatement.setTimestamp(6, Timestamp.from(createdAt));
+                connection.setAutoCommit(false);
+                try {
+                    preparedStatement.setInt(1, urlCheck.getStatusCode());
+                    setContent(preparedStatement, 2, urlCheck);
+                    preparedStatement.setLong(5, urlCheck.getUrlId());
+                    preparedStatement.setString(6, urlCheck.getStatus().name());
+                    preparedStatement.setString(7, urlCheck.getEtag());
+                    preparedStatement.setString(8, urlCheck.getLastModified());
+                    setContentReference(preparedStatement, 9, urlCheck);
+                    preparedStatement.setTimestamp(11, Timestamp.from(createdAt));
 
-            preparedStatement.executeUpdate();
-            ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+                    preparedStatement.executeUpdate();
+                    ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
 
-            if (generatedKeys.next()) {
-                Long id = generatedKeys.getLong("id");
-                urlCheck.setId(id);
-                urlCheck.setCreatedAt(createdAt);
+                    if (!generatedKeys.next()) {
+                        log.error("Database did not return an ID after saving URL create with URL ID: {}", urlId);
+                        throw new SQLException("DataBase have not returned an id after saving an entity");
+                    }
 
-                log.info("URL create saved successfully with ID: {}", id);
-            } else {
-                log.error("Database did not return an ID after saving URL create with URL ID: {}", urlId);
-                throw new SQLException("DataBase have not returned an id after saving an entity");
+                    if (urlCheck.getStatus() == CheckStatus.FINISHED) {
+                        refreshLastChecks(connection, List.of(urlId));
+                    }
+                    connection.commit();
+
+                    Long id = generatedKeys.getLong("id");
+                    urlCheck.setId(id);
+                    urlCheck.setCreatedAt(createdAt);
+                    Caches.URL_CHECKS.invalidate(urlId);
+                    DataVersion.bump();
+
+                    log.info("URL create saved successfully with ID: {}", id);
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
             }
+        });
+    }
+
+    public static void saveAll(List<UrlCheck> urlChecks) throws SQLException {
+        if (urlChecks.isEmpty()) {
+            return;
         }
+
+        Instant createdAt = Instant.now();
+        log.info("Attempting to save batch of {} URL checks", urlChecks.size());
+
+        String sql = """
+                INSERT INTO url_checks (status_code, title, h1, description, url_id, status, etag, last_modified,
+                    content_hash, content_check_id, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+
+        timed("url_checks.saveAll", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                connection.setAutoCommit(false);
+                try {
+                    Set<Long> urlIds = new LinkedHashSet<>();
+                    Set<Long> finishedUrlIds = new LinkedHashSet<>();
+                    for (UrlCheck urlCheck : urlChecks) {
+                        preparedStatement.setInt(1, urlCheck.getStatusCode());
+                        setContent(preparedStatement, 2, urlCheck);
+                        preparedStatement.setLong(5, urlCheck.getUrlId());
+                        preparedStatement.setString(6, urlCheck.getStatus().name());
+                        preparedStatement.setString(7, urlCheck.getEtag());
+                        preparedStatement.setString(8, urlCheck.getLastModified());
+                        setContentReference(preparedStatement, 9, urlCheck);
+                        preparedStatement.setTimestamp(11, Timestamp.from(createdAt));
+                        preparedStatement.addBatch();
+
+                        urlCheck.setCreatedAt(createdAt);
+                        urlIds.add(urlCheck.getUrlId());
+                        if (urlCheck.getStatus() == CheckStatus.FINISHED) {
+                            finishedUrlIds.add(urlCheck.getUrlId());
+                        }
+                    }
+
+                    preparedStatement.executeBatch();
+                    refreshLastChecks(connection, finishedUrlIds);
+                    connection.commit();
+                    urlIds.forEach(Caches.URL_CHECKS::invalidate);
+                    DataVersion.bump();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+
+                log.info("Batch of {} URL checks saved successfully", urlChecks.size());
+            }
+        });
     }
 
-    public static List<UrlCheck> findChecksByUrlId(Long urlId) throws SQLException {
+    public static void update(UrlCheck urlCheck) throws SQLException {
+        log.info("Attempting to update URL check with ID: {}, status: {}", urlCheck.getId(), urlCheck.getStatus());
+
         String sql = """
-            SELECT *
-            FROM url_checks
-            WHERE url_id = ?
-            ORDER BY id DESC
-            """;
+                UPDATE url_checks
+                SET status_code = ?, title = ?, h1 = ?, description = ?, status = ?, etag = ?, last_modified = ?,
+                    content_hash = ?, content_check_id = ?
+                WHERE id = ?
+                """;
+
+        timed("url_checks.update", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                connection.setAutoCommit(false);
+                try {
+                    preparedStatement.setInt(1, urlCheck.getStatusCode());
+                    setContent(preparedStatement, 2, urlCheck);
+                    preparedStatement.setString(5, urlCheck.getStatus().name());
+                    preparedStatement.setString(6, urlCheck.getEtag());
+                    preparedStatement.setString(7, urlCheck.getLastModified());
+                    setContentReference(preparedStatement, 8, urlCheck);
+                    preparedStatement.setLong(10, urlCheck.getId());
+                    preparedStatement.executeUpdate();
+
+                    if (urlCheck.getStatus() == CheckStatus.FINISHED) {
+                        refreshLastChecks(connection, List.of(urlCheck.getUrlId()));
+                    }
+                    connection.commit();
+                    Caches.URL_CHECKS.invalidate(urlCheck.getUrlId());
+                    DataVersion.bump();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            }
+        });
+    }
+
+    public static void updateAll(List<UrlCheck> urlChecks) throws SQLException {
+        if (urlChecks.isEmpty()) {
+            return;
+        }
+
+        log.info("Attempting to update batch of {} URL checks", urlChecks.size());
+
+        String sql = """
+                UPDATE url_checks
+                SET status_code = ?, title = ?, h1 = ?, description = ?, status = ?, etag = ?, last_modified = ?,
+                    content_hash = ?, content_check_id = ?
+                WHERE id = ?
+                """;
+
+        timed("url_checks.updateAll", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                connection.setAutoCommit(false);
+                try {
+                    Set<Long> urlIds = new LinkedHashSet<>();
+                    Set<Long> finishedUrlIds = new LinkedHashSet<>();
+                    for (UrlCheck urlCheck : urlChecks) {
+                        preparedStatement.setInt(1, urlCheck.getStatusCode());
+                        setContent(preparedStatement, 2, urlCheck);
+                        preparedStatement.setString(5, urlCheck.getStatus().name());
+                        preparedStatement.setString(6, urlCheck.getEtag());
+                        preparedStatement.setString(7, urlCheck.getLastModified());
+                        setContentReference(preparedStatement, 8, urlCheck);
+                        preparedStatement.setLong(10, urlCheck.getId());
+                        preparedStatement.addBatch();
+
+                        urlIds.add(urlCheck.getUrlId());
+                        if (urlCheck.getStatus() == CheckStatus.FINISHED) {
+                            finishedUrlIds.add(urlCheck.getUrlId());
+                        }
+                    }
+
+                    preparedStatement.executeBatch();
+                    refreshLastChecks(connection, finishedUrlIds);
+                    connection.commit();
+                    urlIds.forEach(Caches.URL_CHECKS::invalidate);
+                    DataVersion.bump();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+
+                log.info("Batch of {} URL checks updated successfully", urlChecks.size());
+            }
+        });
+    }
+
+    public static void updateStatus(UrlCheck urlCheck) throws SQLException {
+        log.debug("Updating status of URL check with ID: {} to {}", urlCheck.getId(), urlCheck.getStatus());
+        String sql = "UPDATE url_checks SET status = ? WHERE id = ?";
+
+        timed("url_checks.updateStatus", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setString(1, urlCheck.getStatus().name());
+                preparedStatement.setLong(2, urlCheck.getId());
+                preparedStatement.executeUpdate();
+                Caches.URL_CHECKS.invalidate(urlCheck.getUrlId());
+                DataVersion.bump();
+            }
+        });
+    }
+
+    public static int failUnfinished() throws SQLException {
+        String sql = "UPDATE url_checks SET status = ? WHERE status IN (?, ?)";
 
         try (Connection connection = getDataSource().getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setLong(1, urlId);
-            ResultSet resultSet = preparedStatement.executeQuery();
+            preparedStatement.setString(1, CheckStatus.FAILED.name());
+            preparedStatement.setString(2, CheckStatus.PENDING.name());
+            preparedStatement.setString(3, CheckStatus.RUNNING.name());
 
-            List<UrlCheck> urlChecks = new ArrayList<>();
-            while (resultSet.next()) {
-                Long checkId = resultSet.getLong("id");
-                int statusCode = resultSet.getInt("status_code");
-                String title = resultSet.getString("title");
-                String h1 = resultSet.getString("h1");
-                String description = resultSet.getString("description");
-                Instant createdAt = resultSet.getTimestamp("created_at")
-                        .toInstant();
-
-                UrlCheck urlCheck = new UrlCheck(urlId);
-
-                urlCheck.setId(checkId);
-                urlCheck.setStatusCode(statusCode);
-                urlCheck.setTitle(title);
-                urlCheck.setH1(h1);
-                urlCheck.setDescription(description);
-                urlCheck.setUrlId(urlId);
-                urlCheck.setCreatedAt(createdAt);
-
-                urlChecks.add(urlCheck);
+            int updated = preparedStatement.executeUpdate();
+            Caches.URL_CHECKS.invalidateAll();
+            DataVersion.bump();
+            log.info("Marked {} unfinished URL checks as failed", updated);
+            return updated;
+        }
+    }
+
+    public static boolean hasUnfinishedCheck(long urlId) throws SQLException {
+        String sql = "SELECT 1 FROM url_checks WHERE url_id = ? AND status IN (?, ?) LIMIT 1";
+
+        return timed("url_checks.hasUnfinishedCheck", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
+                preparedStatement.setLong(1, urlId);
+                preparedStatement.setString(2, CheckStatus.PENDING.name());
+                preparedStatement.setString(3, CheckStatus.RUNNING.name());
+                return preparedStatement.executeQuery().next();
             }
-            log.info("Fetched {} URL checks for URL ID: {}", urlChecks.size(), urlId);
-            return urlChecks;
+        });
+    }
+
+    public static void delete(UrlCheck urlCheck) throws SQLException {
+        String sql = "DELETE FROM url_checks WHERE id = ?";
+
+        try (Connection connection = getDataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setLong(1, urlCheck.getId());
+            preparedStatement.executeUpdate();
+            Caches.URL_CHECKS.invalidate(urlCheck.getUrlId());
+            DataVersion.bump();
+            log.info("Removed URL check with ID: {}", urlCheck.getId());
         }
     }
 
-    public static Map<Long, UrlCheck> getLastUrlsChecks() throws SQLException {
+    public static List<UrlCheck> findChecksByUrlId(Long urlId) throws SQLException {
+        long cacheGeneration = Caches.URL_CHECKS.getGeneration();
+        Optional<List<UrlCheck>> cachedUrlChecks = Caches.URL_CHECKS.get(urlId);
+        if (cachedUrlChecks.isPresent()) {
+            return cachedUrlChecks.get();
+        }
+
+        List<UrlCheck> result = List.copyOf(timed("url_checks.findChecksByUrlId",
+                () -> findChecksBefore(urlId, Long.MAX_VALUE, RECENT_CHECKS_LIMIT)));
+        Caches.URL_CHECKS.put(urlId, result, cacheGeneration);
+        log.info("Fetched {} recent URL checks for URL ID: {}", result.size(), urlId);
+
+        return result;
+    }
+
+    public static List<UrlCheck> findChecksPage(Long urlId, Long beforeId, int limit) throws SQLException {
+        if (beforeId == null && limit <= RECENT_CHECKS_LIMIT) {
+            List<UrlCheck> recentChecks = findChecksByUrlId(urlId);
+            return recentChecks.subList(0, Math.min(limit, recentChecks.size()));
+        }
+
+        log.debug("Attempting to retrieve up to {} checks of URL ID {} before check ID: {}", limit, urlId, beforeId);
+        return timed("url_checks.findChecksPage",
+                () -> findChecksBefore(urlId, beforeId != null ? beforeId : Long.MAX_VALUE, limit));
+    }
+
+    public static Map<Long, Instant> findCheckTimes(long urlId, long beforeId, int limit) throws SQLException {
         String sql = """
-                SELECT DISTINCT ON (url_id)
-                *
+                SELECT id, created_at
                 FROM url_checks
-                ORDER BY url_id, created_at DESC;
+                WHERE url_id = ? AND status IN (?, ?) AND id < ?
+                ORDER BY id DESC
+                LIMIT ?
                 """;
-        try (Connection connection = getDataSource().getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            Map<Long, UrlCheck> lastUrlChecks = new HashMap<>();
+        return timed("url_checks.findCheckTimes", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            ResultSet resultSet = preparedStatement.executeQuery();
-            while (resultSet.next()) {
-                Long checkId = resultSet.getLong("id");
-                int statusCode = resultSet.getInt("status_code");
-                String title = resultSet.getString("title");
-                String h1 = resultSet.getString("h1");
-                String description = resultSet.getString("description");
-                Long urlId = resultSet.getLong("url_id");
-                Timestamp createdAt = resultSet.getTimestamp("created_at");
-
-                UrlCheck urlCheck = new UrlCheck(urlId);
-
-                urlCheck.setId(checkId);
-                urlCheck.setStatusCode(statusCode);
-                urlCheck.setTitle(title);
-                urlCheck.setH1(h1);
-                urlCheck.setDescription(description);
-                urlCheck.setUrlId(urlId);
-                urlCheck.setCreatedAt(createdAt.toInstant());
-
-                lastUrlChecks.put(urlId, urlCheck);
+                preparedStatement.setLong(1, urlId);
+                preparedStatement.setString(2, CheckStatus.FINISHED.name());
+                preparedStatement.setString(3, CheckStatus.FAILED.name());
+                preparedStatement.setLong(4, beforeId);
+                preparedStatement.setInt(5, limit);
+                ResultSet resultSet = preparedStatement.executeQuery();
+
+                Map<Long, Instant> checkTimes = new LinkedHashMap<>();
+                while (resultSet.next()) {
+                    checkTimes.put(resultSet.getLong("id"), resultSet.getTimestamp("created_at").toInstant());
+                }
+
+                return checkTimes;
             }
+        });
+    }
 
-            log.info("Fetched {} last URLs checks", lastUrlChecks.size());
+    public static int deleteExpired(long urlId, Collection<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // checks still holding content for newer checks or shown as the last check of their URL are kept
+        String sql = String.format("""
+                DELETE FROM url_checks
+                WHERE id IN (%s)
+                    AND NOT EXISTS (
+                        SELECT 1 FROM url_checks refs WHERE refs.content_check_id = url_checks.id
+                    )
+                    AND NOT EXISTS (
+                        SELECT 1 FROM urls WHERE urls.last_check_id = url_checks.id
+                    )
+                """, String.join(", ", Collections.nCopies(ids.size(), "?")));
+
+        return timed("url_checks.deleteExpired", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                int parameterIndex = 1;
+                for (Long id : ids) {
+                    preparedStatement.setLong(parameterIndex++, id);
+                }
+
+                int deleted = preparedStatement.executeUpdate();
+                if (deleted > 0) {
+                    Caches.URL_CHECKS.invalidate(urlId);
+                    DataVersion.bump();
+                }
+
+                log.debug("Deleted {} of {} expired checks of URL ID: {}", deleted, ids.size(), urlId);
+                return deleted;
+            }
+        });
+    }
+
+    public static Optional<UrlCheck> findLastCheck(Long urlId) throws SQLException {
+        return Optional.ofNullable(getLastUrlsChecks(List.of(urlId)).get(urlId));
+    }
+
+    public static Map<Long, UrlCheck> getLastUrlsChecks(Collection<Long> urlIds) throws SQLException {
+        Map<Long, UrlCheck> lastUrlChecks = new HashMap<>();
+        if (urlIds.isEmpty()) {
             return lastUrlChecks;
         }
+
+        String sql = CHECK_COLUMNS + String.format("""
+                JOIN urls ON urls.last_check_id = url_checks.id
+                WHERE urls.id IN (%s)
+                """, String.join(", ", Collections.nCopies(urlIds.size(), "?")));
+        return timed("url_checks.getLastUrlsChecks", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                int parameterIndex = 1;
+                for (Long urlId : urlIds) {
+                    preparedStatement.setLong(parameterIndex++, urlId);
+                }
+
+                ResultSet resultSet = preparedStatement.executeQuery();
+                while (resultSet.next()) {
+                    UrlCheck urlCheck = mapUrlCheck(resultSet);
+                    lastUrlChecks.put(urlCheck.getUrlId(), urlCheck);
+                }
+
+                log.info("Fetched {} last URLs checks", lastUrlChecks.size());
+                return lastUrlChecks;
+            }
+        });
     }
 
     public static void removeAll() {
         String sql = "DELETE from url_checks";
 
         try (Connection connection = getDataSource().getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+             Statement statement = connection.createStatement()) {
 
-            preparedStatement.executeUpdate(sql);
+            statement.executeUpdate("UPDATE urls SET last_check_id = NULL");
+            statement.executeUpdate(sql);
+            Caches.URL_CHECKS.invalidateAll();
+            DataVersion.bump();
             log.info("Remove all url checks from table url_checks");
         } catch (SQLException e) {
             log.error("Failed to delete url checks from table url_checks: {}", e.getMessage(), e);
         }
     }
+
+    private static void refreshLastChecks(Connection connection, Collection<Long> urlIds) throws SQLException {
+        if (urlIds.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+                UPDATE urls
+                SET last_check_id = (
+                    SELECT MAX(url_checks.id)
+                    FROM url_checks
+                    WHERE url_checks.url_id = ? AND url_checks.status = 'FINISHED'
+                )
+                WHERE id = ?
+                """;
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            for (Long urlId : urlIds) {
+                preparedStatement.setLong(1, urlId);
+                preparedStatement.setLong(2, urlId);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    private static List<UrlCheck> findChecksBefore(Long urlId, long beforeId, int limit) throws SQLException {
+        String sql = CHECK_COLUMNS + """
+            WHERE url_checks.url_id = ? AND url_checks.id < ?
+            ORDER BY url_checks.id DESC
+            LIMIT ?
+            """;
+
+        try (Connection connection = getDataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+            preparedStatement.setLong(1, urlId);
+            preparedStatement.setLong(2, beforeId);
+            preparedStatement.setInt(3, limit);
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            List<UrlCheck> urlChecks = new ArrayList<>();
+            while (resultSet.next()) {
+                urlChecks.add(mapUrlCheck(resultSet));
+            }
+
+            return urlChecks;
+        }
+    }
+
+    private static void setContent(PreparedStatement preparedStatement, int firstIndex, UrlCheck urlCheck)
+            throws SQLException {
+        // a check with the same content as an earlier one only keeps a reference to that check's row
+        boolean stored = urlCheck.getContentCheckId() == null;
+        preparedStatement.setString(firstIndex, stored ? urlCheck.getTitle() : null);
+        preparedStatement.setString(firstIndex + 1, stored ? urlCheck.getH1() : null);
+        preparedStatement.setString(firstIndex + 2, stored ? urlCheck.getDescription() : null);
+    }
+
+    private static void setContentReference(PreparedStatement preparedStatement, int firstIndex, UrlCheck urlCheck)
+            throws SQLException {
+        preparedStatement.setString(firstIndex, urlCheck.getContentHash());
+        preparedStatement.setObject(firstIndex + 1, urlCheck.getContentCheckId(), Types.BIGINT);
+    }
+
+    private static UrlCheck mapUrlCheck(ResultSet resultSet) throws SQLException {
+        Long urlId = resultSet.getLong("url_id");
+        UrlCheck urlCheck = new UrlCheck(urlId);
+
+        urlCheck.setId(resultSet.getLong("id"));
+        urlCheck.setStatusCode(resultSet.getInt("status_code"));
+        long contentCheckId = resultSet.getLong("content_check_id");
+        boolean storedElsewhere = !resultSet.wasNull();
+        String columnPrefix = storedElsewhere ? "content_" : "";
+        urlCheck.setTitle(resultSet.getString(columnPrefix + "title"));
+        urlCheck.setH1(resultSet.getString(columnPrefix + "h1"));
+        urlCheck.setDescription(resultSet.getString(columnPrefix + "description"));
+        urlCheck.setContentHash(resultSet.getString("content_hash"));
+        urlCheck.setContentCheckId(storedElsewhere ? contentCheckId : null);
+        urlCheck.setStatus(CheckStatus.valueOf(resultSet.getString("status")));
+        urlCheck.setEtag(resultSet.getString("etag"));
+        urlCheck.setLastModified(resultSet.getString("last_modified"));
+        urlCheck.setCreatedAt(resultSet.getTimestamp("created_at").toInstant());
+
+        return urlCheck;
+    }
 }
@@ -0,0 +1,190 @@
+package hexlet.code.repository;
+
+import hexlet.code.model.UrlCheck;
+import hexlet.code.util.Env;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class UrlChecksWriteBehind {
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 200;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final int BATCH_SIZE = Env.getInt("WRITE_BEHIND_BATCH_SIZE", DEFAULT_BATCH_SIZE);
+    private static final long FLUSH_INTERVAL_MILLIS = Env.getLong("WRITE_BEHIND_FLUSH_INTERVAL_MILLIS",
+            DEFAULT_FLUSH_INTERVAL_MILLIS);
+
+    private static final AtomicLong ACCEPTED_COUNT = new AtomicLong();
+    private static final AtomicLong FLUSHED_COUNT = new AtomicLong();
+    private static final Object FLUSH_MONITOR = new Object();
+
+    private static LinkedBlockingQueue<UrlCheck> queue;
+    private static Thread writer;
+    private static volatile boolean running;
+
+    public static synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (!Env.getBoolean("WRITE_BEHIND_ENABLED", true)) {
+            log.info("Write-behind for URL checks is disabled, results are written synchronously");
+            return;
+        }
+
+        queue = new LinkedBlockingQueue<>(Env.getInt("WRITE_BEHIND_CAPACITY", DEFAULT_CAPACITY));
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("url-checks-writer")
+                .daemon(true)
+                .start(UrlChecksWriteBehind::run);
+
+        log.info("Write-behind for URL checks started, batch size: {}, flush interval: {} ms",
+                BATCH_SIZE, FLUSH_INTERVAL_MILLIS);
+    }
+
+    public static void write(UrlCheck urlCheck) {
+        LinkedBlockingQueue<UrlCheck> currentQueue = queue;
+        if (running && currentQueue.offer(urlCheck)) {
+            ACCEPTED_COUNT.incrementAndGet();
+            return;
+        }
+
+        log.debug("Write-behind buffer is not available, writing URL check synchronously");
+        writeEach(List.of(urlCheck));
+    }
+
+    public static int getPendingCount() {
+        LinkedBlockingQueue<UrlCheck> currentQueue = queue;
+        return currentQueue != null ? currentQueue.size() : 0;
+    }
+
+    public static long getAcceptedCount() {
+        return ACCEPTED_COUNT.get();
+    }
+
+    // results leave the buffer in order, so every one accepted before the mark is stored once the flushed
+    // count reaches it; false if that did not happen within the timeout
+    public static boolean awaitFlushed(long mark, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        synchronized (FLUSH_MONITOR) {
+            while (FLUSHED_COUNT.get() < mark) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(FLUSH_MONITOR, remaining);
+            }
+        }
+        return true;
+    }
+
+    public static synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+
+        log.info("Shutting down write-behind for URL checks, {} results pending", queue.size());
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // anything offered while the writer was stopping is still written before the pool goes away
+        List<UrlCheck> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        flush(remaining);
+    }
+
+    private static void run() {
+        List<UrlCheck> batch = new ArrayList<>(BATCH_SIZE);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                UrlCheck first = queue.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS);
+                while (batch.size() < BATCH_SIZE) {
+                    UrlCheck next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                log.warn("URL checks writer interrupted, flushing {} results", batch.size());
+                running = false;
+            }
+
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private static void flush(List<UrlCheck> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<UrlCheck> inserts = new ArrayList<>();
+        List<UrlCheck> updates = new ArrayList<>();
+        for (UrlCheck urlCheck : batch) {
+            if (urlCheck.getId() == null) {
+                inserts.add(urlCheck);
+            } else {
+                updates.add(urlCheck);
+            }
+        }
+
+        try {
+            UrlChecksRepository.saveAll(inserts);
+        } catch (SQLException e) {
+            log.error("Batch insert of {} URL checks failed, writing one by one: {}",
+                    inserts.size(), e.getMessage(), e);
+            writeEach(inserts);
+        }
+
+        try {
+            UrlChecksRepository.updateAll(updates);
+        } catch (SQLException e) {
+            log.error("Batch update of {} URL checks failed, writing one by one: {}",
+                    updates.size(), e.getMessage(), e);
+            writeEach(updates);
+        }
+
+        log.debug("Flushed {} new and {} updated URL checks", inserts.size(), updates.size());
+        FLUSHED_COUNT.addAndGet(batch.size());
+        synchronized (FLUSH_MONITOR) {
+            FLUSH_MONITOR.notifyAll();
+        }
+    }
+
+    private static void writeEach(List<UrlCheck> urlChecks) {
+        for (UrlCheck urlCheck : urlChecks) {
+            try {
+                if (urlCheck.getId() == null) {
+                    UrlChecksRepository.save(urlCheck);
+                } else {
+                    UrlChecksRepository.update(urlCheck);
+                }
+            } catch (SQLException e) {
+                log.error("Failed to write URL check for URL ID {}: {}", urlCheck.getUrlId(), e.getMessage(), e);
+            }
+        }
+    }
+}
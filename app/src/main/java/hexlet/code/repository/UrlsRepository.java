@@ -1,6 +1,10 @@
 package hexlet.code.repository;
 
+import hexlet.code.cache.Caches;
+import hexlet.code.cache.DataVersion;
+import hexlet.code.dto.urls.UrlRow;
 import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
 
 import lombok.extern.slf4j.Slf4j;
 import java.sql.Connection;
@@ -11,11 +15,22 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 public class UrlsRepository extends BaseRepository {
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
     public static void save(Url url) throws SQLException {
         String urlName = url.getName();
         Instant createdAt = Instant.now();
@@ -39,6 +54,7 @@ public class UrlsRepository extends BaseRepository {
                 Long id = generatedKeys.getLong("id");
                 url.setId(id);
                 url.setCreatedAt(createdAt);
+                DataVersion.bump();
 
                 log.info("URL saved successfully with ID: {}", id);
             } else {
@@ -52,27 +68,308 @@ public class UrlsRepository extends BaseRepository {
         log.info("Attempting to retrieve list of URLs");
         String sql = "SELECT * FROM urls";
 
-        try (Connection connection = getDataSource().getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+        return timed("urls.getEntities", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            ResultSet resultSet = preparedStatement.executeQuery();
-            ArrayList<Url> urls = new ArrayList<>();
+                ResultSet resultSet = preparedStatement.executeQuery();
+                ArrayList<Url> urls = new ArrayList<>();
 
-            while (resultSet.next()) {
-                Long id = resultSet.getLong("id");
-                String name = resultSet.getString("name");
-                Timestamp createdAt = resultSet.getTimestamp("created_at");
+                while (resultSet.next()) {
+                    Long id = resultSet.getLong("id");
+                    String name = resultSet.getString("name");
+                    Timestamp createdAt = resultSet.getTimestamp("created_at");
 
-                Url url = new Url(name);
-                url.setId(id);
-                url.setCreatedAt(createdAt.toInstant());
-                urls.add(url);
+                    Url url = new Url(name);
+                    url.setId(id);
+                    url.setCreatedAt(createdAt.toInstant());
+                    urls.add(url);
+                }
+
+                log.info("Retrieved {} URLs successfully", urls.size());
+                return urls;
+            }
+        });
+    }
+
+    public static boolean saveIfAbsent(Url url) throws SQLException {
+        String urlName = url.getName();
+        Instant createdAt = Instant.now();
+
+        log.info("Attempting to save URL if absent: {}", urlName);
+
+        String sql = getDialect() == Dialect.POSTGRES
+                ? """
+                INSERT INTO urls (name, created_at)
+                VALUES (?, ?)
+                ON CONFLICT (name) DO NOTHING
+                """
+                : """
+                MERGE INTO urls
+                USING (
+                    VALUES (CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP WITH TIME ZONE))
+                ) AS source (name, created_at)
+                ON urls.name = source.name
+                WHEN NOT MATCHED THEN INSERT (name, created_at) VALUES (source.name, source.created_at)
+                """;
+
+        return timed("urls.saveIfAbsent", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql,
+                         Statement.RETURN_GENERATED_KEYS)) {
+
+                preparedStatement.setString(1, urlName);
+                preparedStatement.setTimestamp(2, Timestamp.from(createdAt));
+
+                boolean created;
+                try {
+                    created = preparedStatement.executeUpdate() > 0;
+                } catch (SQLException e) {
+                    // H2's MERGE does not lock a missing row, so a concurrent insert of the same name wins the race
+                    if (!isUniqueViolation(e)) {
+                        throw e;
+                    }
+                    log.debug("URL {} was inserted concurrently", urlName);
+                    created = false;
+                }
+
+                if (created) {
+                    ResultSet generatedKeys = preparedStatement.getGeneratedKeys();
+                    if (generatedKeys.next()) {
+                        url.setId(generatedKeys.getLong("id"));
+                        url.setCreatedAt(createdAt);
+                        DataVersion.bump();
+
+                        log.info("URL saved successfully with ID: {}", url.getId());
+                        return true;
+                    }
+                }
+
+                Url existingUrl = findByName(connection, urlName)
+                        .orElseThrow(() -> new SQLException("URL was neither inserted nor found: " + urlName));
+                url.setId(existingUrl.getId());
+                url.setCreatedAt(existingUrl.getCreatedAt());
+
+                log.info("URL {} saved: {}, ID: {}", urlName, created, url.getId());
+                return created;
             }
+        });
+    }
 
-            log.info("Retrieved {} URLs successfully", urls.size());
-            return urls;
+    public static int saveAllIfAbsent(Collection<String> urlNames) throws SQLException {
+        if (urlNames.isEmpty()) {
+            return 0;
         }
 
+        Instant createdAt = Instant.now();
+        log.info("Attempting to save batch of {} URLs if absent", urlNames.size());
+
+        String sql = getDialect() == Dialect.POSTGRES
+                ? """
+                INSERT INTO urls (name, created_at)
+                VALUES (?, ?)
+                ON CONFLICT (name) DO NOTHING
+                """
+                : """
+                MERGE INTO urls
+                USING (
+                    VALUES (CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP WITH TIME ZONE))
+                ) AS source (name, created_at)
+                ON urls.name = source.name
+                WHEN NOT MATCHED THEN INSERT (name, created_at) VALUES (source.name, source.created_at)
+                """;
+
+        return timed("urls.saveAllIfAbsent", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                connection.setAutoCommit(false);
+                int attempt = 0;
+                while (true) {
+                    attempt++;
+                    try {
+                        for (String urlName : urlNames) {
+                            preparedStatement.setString(1, urlName);
+                            preparedStatement.setTimestamp(2, Timestamp.from(createdAt));
+                            preparedStatement.addBatch();
+                        }
+
+                        int inserted = 0;
+                        for (int updateCount : preparedStatement.executeBatch()) {
+                            if (updateCount > 0) {
+                                inserted++;
+                            }
+                        }
+                        connection.commit();
+
+                        if (inserted > 0) {
+                            DataVersion.bump();
+                        }
+                        log.info("Batch of {} URLs saved, {} of them were new", urlNames.size(), inserted);
+                        return inserted;
+                    } catch (SQLException e) {
+                        connection.rollback();
+                        preparedStatement.clearBatch();
+                        // on H2 a URL inserted concurrently fails the batch, once committed the retry merges it
+                        if (attempt >= MAX_BATCH_ATTEMPTS || !isUniqueViolation(e)) {
+                            throw e;
+                        }
+                        log.debug("Batch of {} URLs raced with a concurrent insert, retrying", urlNames.size());
+                    }
+                }
+            }
+        });
+    }
+
+    public static List<Url> findOlderThan(Long id, int limit) throws SQLException {
+        log.info("Attempting to retrieve up to {} URLs older than id: {}", limit, id);
+        String sql = """
+                SELECT *
+                FROM urls
+                WHERE id < ?
+                ORDER BY id DESC
+                LIMIT ?
+                """;
+
+        return timed("urls.findOlderThan", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setLong(1, id != null ? id : Long.MAX_VALUE);
+                preparedStatement.setInt(2, limit);
+                ResultSet resultSet = preparedStatement.executeQuery();
+
+                List<Url> urls = new ArrayList<>();
+                while (resultSet.next()) {
+                    urls.add(mapUrl(resultSet));
+                }
+
+                log.info("Retrieved {} URLs successfully", urls.size());
+                return urls;
+            }
+        });
+    }
+
+    public static List<Url> findNewerThan(long id, int limit) throws SQLException {
+        log.info("Attempting to retrieve up to {} URLs newer than id: {}", limit, id);
+        List<Url> urls = findBatchAfter(id, limit);
+        Collections.reverse(urls);
+
+        return urls;
+    }
+
+    public static List<Url> findBatchAfter(long afterId, int limit) throws SQLException {
+        log.debug("Attempting to retrieve up to {} URLs after id: {}", limit, afterId);
+        String sql = """
+                SELECT *
+                FROM urls
+                WHERE id > ?
+                ORDER BY id
+                LIMIT ?
+                """;
+
+        return timed("urls.findBatchAfter", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setLong(1, afterId);
+                preparedStatement.setInt(2, limit);
+                ResultSet resultSet = preparedStatement.executeQuery();
+
+                List<Url> urls = new ArrayList<>();
+                while (resultSet.next()) {
+                    urls.add(mapUrl(resultSet));
+                }
+
+                return urls;
+            }
+        });
+    }
+
+    public static Map<Long, Instant> findLastCheckTimesAfter(long afterId, int limit) throws SQLException {
+        log.debug("Attempting to retrieve last check times of up to {} URLs after id: {}", limit, afterId);
+        String sql = """
+                SELECT urls.id, COALESCE(url_checks.created_at, urls.created_at) AS last_checked_at
+                FROM urls
+                LEFT JOIN url_checks ON url_checks.id = urls.last_check_id
+                WHERE urls.id > ?
+                ORDER BY urls.id
+                LIMIT ?
+                """;
+
+        return timed("urls.findLastCheckTimesAfter", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                preparedStatement.setLong(1, afterId);
+                preparedStatement.setInt(2, limit);
+                ResultSet resultSet = preparedStatement.executeQuery();
+
+                Map<Long, Instant> lastCheckTimes = new LinkedHashMap<>();
+                while (resultSet.next()) {
+                    lastCheckTimes.put(resultSet.getLong("id"), resultSet.getTimestamp("last_checked_at").toInstant());
+                }
+
+                return lastCheckTimes;
+            }
+        });
+    }
+
+    public static Stream<UrlRow> streamWithLastChecks(int fetchSize) throws SQLException {
+        log.info("Attempting to stream URLs with last checks, fetch size: {}", fetchSize);
+        String sql = """
+                SELECT urls.id, urls.name, urls.created_at,
+                    url_checks.id AS check_id, url_checks.status_code, url_checks.created_at AS checked_at
+                FROM urls
+                LEFT JOIN url_checks ON url_checks.id = urls.last_check_id
+                ORDER BY urls.id DESC
+                """;
+
+        Connection connection = getDataSource().getConnection();
+        try {
+            // PostgreSQL only uses a cursor for the fetch size inside a transaction, otherwise it reads every row
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            PreparedStatement preparedStatement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            ResultSet resultSet = timed("urls.streamWithLastChecks", () -> preparedStatement.executeQuery());
+
+            Spliterator<UrlRow> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super UrlRow> action) {
+                    try {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        action.accept(mapUrlRow(resultSet));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Failed to read URL row: " + e.getMessage(), e);
+                    }
+                }
+            };
+
+            return StreamSupport.stream(rows, false)
+                    .onClose(() -> close(connection));
+        } catch (SQLException e) {
+            close(connection);
+            throw e;
+        }
+    }
+
+    public static long count() throws SQLException {
+        String sql = "SELECT COUNT(*) FROM urls";
+
+        return timed("urls.count", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+
+                ResultSet resultSet = preparedStatement.executeQuery();
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        });
     }
 
     public static boolean existsByName(String name) throws SQLException {
@@ -85,47 +382,59 @@ public class UrlsRepository extends BaseRepository {
                     )
                     """;
 
-        try (Connection connection = getDataSource().getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+        return timed("urls.existsByName", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setString(1, name);
-            ResultSet resultSet = preparedStatement.executeQuery();
+                preparedStatement.setString(1, name);
+                ResultSet resultSet = preparedStatement.executeQuery();
 
-            if (resultSet.next()) {
-                boolean exists = resultSet.getBoolean(1);
-                log.debug("URL '{}' exists: {}", name, exists);
-                return exists;
+                if (resultSet.next()) {
+                    boolean exists = resultSet.getBoolean(1);
+                    log.debug("URL '{}' exists: {}", name, exists);
+                    return exists;
+                }
             }
-        }
 
-        return false;
+            return false;
+        });
     }
 
     public static Optional<Url> find(long id) throws SQLException {
         log.info("Attempting to find URL with id: {}", id);
+
+        long cacheGeneration = Caches.URLS.getGeneration();
+        Optional<Url> cachedUrl = Caches.URLS.get(id);
+        if (cachedUrl.isPresent()) {
+            return cachedUrl;
+        }
+
         String sql = "SELECT * FROM urls WHERE id = ?";
 
-        try (Connection connection = getDataSource().getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+        return timed("urls.find", () -> {
+            try (Connection connection = getDataSource().getConnection();
+                PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
 
-            preparedStatement.setLong(1, id);
-            ResultSet resultSet = preparedStatement.executeQuery();
+                preparedStatement.setLong(1, id);
+                ResultSet resultSet = preparedStatement.executeQuery();
 
-            if (resultSet.next()) {
-                String name = resultSet.getString("name");
-                Timestamp createdAt = resultSet.getTimestamp("created_at");
+                if (resultSet.next()) {
+                    String name = resultSet.getString("name");
+                    Timestamp createdAt = resultSet.getTimestamp("created_at");
 
-                Url url = new Url(name);
-                url.setId(id);
-                url.setCreatedAt(createdAt.toInstant());
+                    Url url = new Url(name);
+                    url.setId(id);
+                    url.setCreatedAt(createdAt.toInstant());
 
-                return Optional.of(url);
-            } else {
-                log.info("No URL found with id: {}", id);
+                    Caches.URLS.put(id, url, cacheGeneration);
+                    return Optional.of(url);
+                } else {
+                    log.info("No URL found with id: {}", id);
+                }
             }
-        }
 
-        return Optional.empty();
+            return Optional.empty();
+        });
     }
 
     public static void removeAll() {
@@ -135,9 +444,55 @@ public class UrlsRepository extends BaseRepository {
              Statement statement = connection.createStatement()) {
 
             statement.executeUpdate(sql);
+            Caches.URLS.invalidateAll();
+            Caches.URL_CHECKS.invalidateAll();
+            DataVersion.bump();
             log.info("Remove all URLs from table urls");
         } catch (SQLException e) {
             log.error("Failed to delete urls from table urls: {}", e.getMessage(), e);
         }
     }
+
+    private static Optional<Url> findByName(Connection connection, String name) throws SQLException {
+        String sql = "SELECT * FROM urls WHERE name = ?";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, name);
+            ResultSet resultSet = preparedStatement.executeQuery();
+
+            return resultSet.next() ? Optional.of(mapUrl(resultSet)) : Optional.empty();
+        }
+    }
+
+    private static UrlRow mapUrlRow(ResultSet resultSet) throws SQLException {
+        Url url = mapUrl(resultSet);
+
+        long checkId = resultSet.getLong("check_id");
+        if (resultSet.wasNull()) {
+            return new UrlRow(url, null);
+        }
+
+        UrlCheck lastCheck = new UrlCheck(url.getId());
+        lastCheck.setId(checkId);
+        lastCheck.setStatusCode(resultSet.getInt("status_code"));
+        lastCheck.setCreatedAt(resultSet.getTimestamp("checked_at").toInstant());
+
+        return new UrlRow(url, lastCheck);
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.error("Failed to close streaming connection: {}", e.getMessage(), e);
+        }
+    }
+
+    private static Url mapUrl(ResultSet resultSet) throws SQLException {
+        Url url = new Url(resultSet.getString("name"));
+        url.setId(resultSet.getLong("id"));
+        url.setCreatedAt(resultSet.getTimestamp("created_at").toInstant());
+
+        return url;
+    }
 }
@@ -0,0 +1,114 @@
+package hexlet.code.retention;
+
+import hexlet.code.model.Url;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlsRepository;
+import hexlet.code.util.Env;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class CheckRetentionJob {
+    private static final long DEFAULT_INTERVAL_SECONDS = 3600;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final long DEFAULT_BATCH_PAUSE_MILLIS = 50;
+    private static final int URL_BATCH_SIZE = 500;
+
+    private static final int BATCH_SIZE = Env.getInt("RETENTION_BATCH_SIZE", DEFAULT_BATCH_SIZE);
+    private static final long BATCH_PAUSE_MILLIS = Env.getLong("RETENTION_BATCH_PAUSE_MILLIS",
+            DEFAULT_BATCH_PAUSE_MILLIS);
+
+    private static ScheduledExecutorService executor;
+
+    public static synchronized void start() {
+        if (!Env.getBoolean("RETENTION_ENABLED", true)) {
+            log.info("Check retention is disabled");
+            return;
+        }
+        if (executor != null && !executor.isShutdown()) {
+            return;
+        }
+
+        RetentionPolicy policy = RetentionPolicy.fromEnv();
+        long intervalSeconds = Env.getLong("RETENTION_INTERVAL_SECONDS", DEFAULT_INTERVAL_SECONDS);
+
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("check-retention")
+                .daemon(true)
+                .factory());
+        executor.scheduleWithFixedDelay(() -> run(policy), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+
+        log.info("Check retention started with {}, interval: {} s", policy, intervalSeconds);
+    }
+
+    public static synchronized void shutdown() {
+        if (executor == null) {
+            return;
+        }
+
+        log.info("Shutting down check retention");
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    public static int runOnce(RetentionPolicy policy) throws SQLException, InterruptedException {
+        long startedAt = System.nanoTime();
+        Instant now = Instant.now();
+        int deleted = 0;
+        long lastSeenUrlId = 0;
+
+        List<Url> urls = UrlsRepository.findBatchAfter(lastSeenUrlId, URL_BATCH_SIZE);
+        while (!urls.isEmpty()) {
+            for (Url url : urls) {
+                deleted += compact(url.getId(), policy, now);
+                lastSeenUrlId = url.getId();
+            }
+            urls = UrlsRepository.findBatchAfter(lastSeenUrlId, URL_BATCH_SIZE);
+        }
+
+        log.info("Check retention removed {} checks in {} ms", deleted, (System.nanoTime() - startedAt) / 1_000_000);
+        return deleted;
+    }
+
+    private static void run(RetentionPolicy policy) {
+        try {
+            runOnce(policy);
+        } catch (SQLException e) {
+            log.error("Check retention failed: {}", e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int compact(long urlId, RetentionPolicy policy, Instant now)
+            throws SQLException, InterruptedException {
+        RetentionPolicy.Selection selection = policy.startSelection(now);
+        int deleted = 0;
+
+        // the history is read in id pages and each page is deleted in its own short transaction,
+        // so neither memory nor lock time grows with the number of checks
+        Map<Long, Instant> checkTimes = UrlChecksRepository.findCheckTimes(urlId, Long.MAX_VALUE, BATCH_SIZE);
+        while (!checkTimes.isEmpty()) {
+            List<Long> expired = selection.selectExpired(checkTimes);
+            if (!expired.isEmpty()) {
+                deleted += UrlChecksRepository.deleteExpired(urlId, expired);
+                if (BATCH_PAUSE_MILLIS > 0) {
+                    Thread.sleep(BATCH_PAUSE_MILLIS);
+                }
+            }
+
+            long oldestId = Collections.min(checkTimes.keySet());
+            checkTimes = UrlChecksRepository.findCheckTimes(urlId, oldestId, BATCH_SIZE);
+        }
+
+        return deleted;
+    }
+}
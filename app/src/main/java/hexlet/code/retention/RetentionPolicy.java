@@ -0,0 +1,73 @@
+package hexlet.code.retention;
+
+import hexlet.code.util.Env;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public record RetentionPolicy(int keepLast, Duration dailyFor, Duration maxAge) {
+    private static final int DEFAULT_KEEP_LAST = 100;
+    private static final long DEFAULT_DAILY_DAYS = 30;
+    private static final long DEFAULT_MAX_AGE_DAYS = 0;
+
+    public static RetentionPolicy fromEnv() {
+        return new RetentionPolicy(
+                Env.getInt("RETENTION_KEEP_LAST", DEFAULT_KEEP_LAST),
+                Duration.ofDays(Env.getLong("RETENTION_DAILY_DAYS", DEFAULT_DAILY_DAYS)),
+                Duration.ofDays(Env.getLong("RETENTION_MAX_AGE_DAYS", DEFAULT_MAX_AGE_DAYS)));
+    }
+
+    public Selection startSelection(Instant now) {
+        return new Selection(this, now);
+    }
+
+    // walks one URL's history page by page, so only the kept days and weeks are held in memory
+    public static final class Selection {
+        private final RetentionPolicy policy;
+        private final Instant now;
+        private final Set<LocalDate> keptDays = new HashSet<>();
+        private final Set<LocalDate> keptWeeks = new HashSet<>();
+        private int position;
+
+        private Selection(RetentionPolicy policy, Instant now) {
+            this.policy = policy;
+            this.now = now;
+        }
+
+        // check times come newest first, so the check kept for each day or week is the latest one in it
+        public List<Long> selectExpired(Map<Long, Instant> checkTimes) {
+            List<Long> expired = new ArrayList<>();
+
+            for (Map.Entry<Long, Instant> entry : checkTimes.entrySet()) {
+                if (position++ < policy.keepLast()) {
+                    continue;
+                }
+
+                Duration age = Duration.between(entry.getValue(), now);
+                if (!policy.maxAge().isZero() && age.compareTo(policy.maxAge()) > 0) {
+                    expired.add(entry.getKey());
+                    continue;
+                }
+
+                LocalDate day = LocalDate.ofInstant(entry.getValue(), ZoneOffset.UTC);
+                boolean kept = age.compareTo(policy.dailyFor()) <= 0
+                        ? keptDays.add(day)
+                        : keptWeeks.add(day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)));
+                if (!kept) {
+                    expired.add(entry.getKey());
+                }
+            }
+
+            return expired;
+        }
+    }
+}
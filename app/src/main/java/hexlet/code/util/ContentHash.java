@@ -0,0 +1,28 @@
+package hexlet.code.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class ContentHash {
+    private static final int NULL_LENGTH = -1;
+
+    public static String of(String... fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : fields) {
+                // each field is prefixed with its length, so neither a null nor a moved boundary gives the same hash
+                byte[] bytes = field != null ? field.getBytes(StandardCharsets.UTF_8) : new byte[0];
+                digest.update(ByteBuffer.allocate(Integer.BYTES)
+                        .putInt(field != null ? bytes.length : NULL_LENGTH)
+                        .array());
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -3,6 +3,10 @@ package hexlet.code.util;
 public class NamedRoutes {
     private static final String ROOT_PATH = "/";
     private static final String URLS_PATH = "/urls";
+    private static final String CACHE_STATS_PATH = "/internal/caches";
+    private static final String METRICS_PATH = "/metrics";
+    private static final String API_PATH = "/api";
+    private static final String API_URLS_PATH = API_PATH + "/v1/urls";
 
     public static String rootPath() {
         return ROOT_PATH;
@@ -12,6 +16,66 @@ public class NamedRoutes {
         return URLS_PATH;
     }
 
+    public static String cacheStatsPath() {
+        return CACHE_STATS_PATH;
+    }
+
+    public static String metricsPath() {
+        return METRICS_PATH;
+    }
+
+    public static String apiPath() {
+        return API_PATH;
+    }
+
+    public static String apiUrlsPath() {
+        return API_URLS_PATH;
+    }
+
+    public static String apiUrlsImportPath() {
+        return String.format("%s/import", API_URLS_PATH);
+    }
+
+    public static String apiUrlPath(String id) {
+        return String.format("%s/%s", API_URLS_PATH, id);
+    }
+
+    public static String apiUrlPath(Long id) {
+        return apiUrlPath(String.valueOf(id));
+    }
+
+    public static String apiUrlChecksPath(String id) {
+        return String.format("%s/checks", apiUrlPath(id));
+    }
+
+    public static String apiUrlChecksPath(Long id) {
+        return apiUrlChecksPath(String.valueOf(id));
+    }
+
+    public static String urlsPagePath(String cursorParam, Long cursor, int perPage) {
+        return String.format("%s?%s=%d&per=%d", URLS_PATH, cursorParam, cursor, perPage);
+    }
+
+    public static String urlsChecksPath() {
+        return String.format("%s/checks", URLS_PATH);
+    }
+
+    public static String urlsChecksProgressPath() {
+        return String.format("%s/progress", urlsChecksPath());
+    }
+
+    public static String urlsStreamPath() {
+        return String.format("%s?stream=true", URLS_PATH);
+    }
+
+    public static String urlsExportPath() {
+        return String.format("%s/export", URLS_PATH);
+    }
+
+    public static String urlsExportPath(String format) {
+        return String.format("%s?format=%s", urlsExportPath(), format);
+    }
+
     public static String urlPath(String id) {
         return String.format("%s/%s", URLS_PATH, id);
     }
@@ -20,6 +84,10 @@ public class NamedRoutes {
         return urlPath(String.valueOf(id));
     }
 
+    public static String urlChecksPagePath(Long id, Long before, int perPage) {
+        return String.format("%s?before=%d&per=%d", urlPath(id), before, perPage);
+    }
+
     public static String urlCheckPath(String id) {
         return String.format("%s/checks", urlPath(id));
     }
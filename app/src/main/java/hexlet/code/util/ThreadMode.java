@@ -0,0 +1,29 @@
+package hexlet.code.util;
+
+import java.util.concurrent.ThreadFactory;
+
+public class ThreadMode {
+    private static final String VIRTUAL_MODE = "virtual";
+    private static final String DEFAULT_MODE = "platform";
+
+    public static String getMode() {
+        return Env.getString("THREAD_MODE", DEFAULT_MODE).toLowerCase();
+    }
+
+    public static boolean isVirtual() {
+        return VIRTUAL_MODE.equals(getMode());
+    }
+
+    public static ThreadFactory createThreadFactory(String namePrefix) {
+        if (isVirtual()) {
+            return Thread.ofVirtual()
+                    .name(namePrefix, 0)
+                    .factory();
+        }
+
+        return Thread.ofPlatform()
+                .name(namePrefix, 0)
+                .daemon(true)
+                .factory();
+    }
+}
@@ -0,0 +1,205 @@
+package hexlet.code.util;
+
+import java.net.IDN;
+import java.util.Locale;
+import java.util.Optional;
+
+public class UrlNormalizer {
+    private static final String HTTP = "http";
+    private static final String HTTPS = "https";
+    private static final int HTTP_DEFAULT_PORT = 80;
+    private static final int HTTPS_DEFAULT_PORT = 443;
+    private static final int MAX_PORT = 65_535;
+    private static final int MAX_HOST_LENGTH = 253;
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    public static Optional<String> normalize(String input) {
+        if (input == null) {
+            return Optional.empty();
+        }
+
+        int start = 0;
+        int end = input.length();
+        while (start < end && Character.isWhitespace(input.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+
+        int schemeEnd = input.indexOf(':', start);
+        if (schemeEnd < 0 || schemeEnd >= end) {
+            return Optional.empty();
+        }
+
+        boolean secure = schemeEnd - start == HTTPS.length()
+                && input.regionMatches(true, start, HTTPS, 0, HTTPS.length());
+        boolean plain = schemeEnd - start == HTTP.length()
+                && input.regionMatches(true, start, HTTP, 0, HTTP.length());
+        if (!secure && !plain) {
+            return Optional.empty();
+        }
+        String scheme = secure ? HTTPS : HTTP;
+
+        int authorityStart = schemeEnd + 3;
+        if (authorityStart > end || !input.startsWith("//", schemeEnd + 1)) {
+            return Optional.empty();
+        }
+
+        int authorityEnd = -1;
+        int userInfoEnd = -1;
+        // path, query and fragment are dropped, they only have to be free of characters a URL can't contain
+        for (int i = authorityStart; i < end; i++) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c) || Character.isISOControl(c)) {
+                return Optional.empty();
+            }
+            if (authorityEnd < 0 && (c == '/' || c == '?' || c == '#')) {
+                authorityEnd = i;
+            } else if (authorityEnd < 0 && c == '@') {
+                userInfoEnd = i;
+            }
+        }
+        if (authorityEnd < 0) {
+            authorityEnd = end;
+        }
+
+        int hostStart = userInfoEnd >= 0 ? userInfoEnd + 1 : authorityStart;
+        int hostEnd = findHostEnd(input, hostStart, authorityEnd);
+        if (hostEnd < 0) {
+            return Optional.empty();
+        }
+
+        int port = parsePort(input, hostEnd, authorityEnd);
+        if (port == Integer.MIN_VALUE) {
+            return Optional.empty();
+        }
+
+        String host = normalizeHost(input, hostStart, hostEnd);
+        if (host == null) {
+            return Optional.empty();
+        }
+
+        boolean defaultPort = port == (secure ? HTTPS_DEFAULT_PORT : HTTP_DEFAULT_PORT);
+
+        StringBuilder normalized = new StringBuilder(scheme.length() + host.length() + 9)
+                .append(scheme)
+                .append("://")
+                .append(host);
+        if (port >= 0 && !defaultPort) {
+            normalized.append(':').append(port);
+        }
+
+        return Optional.of(normalized.toString());
+    }
+
+    private static int findHostEnd(String input, int hostStart, int authorityEnd) {
+        if (hostStart < authorityEnd && input.charAt(hostStart) == '[') {
+            int closing = input.indexOf(']', hostStart);
+            return closing >= 0 && closing < authorityEnd ? closing + 1 : -1;
+        }
+
+        int hostEnd = hostStart;
+        while (hostEnd < authorityEnd && input.charAt(hostEnd) != ':') {
+            hostEnd++;
+        }
+        return hostEnd;
+    }
+
+    // -1 when there is no port, Integer.MIN_VALUE when it is invalid
+    private static int parsePort(String input, int hostEnd, int authorityEnd) {
+        if (hostEnd == authorityEnd) {
+            return -1;
+        }
+        if (input.charAt(hostEnd) != ':') {
+            return Integer.MIN_VALUE;
+        }
+        if (hostEnd + 1 == authorityEnd) {
+            return -1;
+        }
+
+        int port = 0;
+        for (int i = hostEnd + 1; i < authorityEnd; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return Integer.MIN_VALUE;
+            }
+            port = port * 10 + (c - '0');
+            if (port > MAX_PORT) {
+                return Integer.MIN_VALUE;
+            }
+        }
+        return port;
+    }
+
+    private static String normalizeHost(String input, int hostStart, int hostEnd) {
+        if (hostStart == hostEnd) {
+            return null;
+        }
+        if (input.charAt(hostStart) == '[') {
+            return normalizeIpv6(input, hostStart, hostEnd);
+        }
+
+        boolean ascii = true;
+        for (int i = hostStart; i < hostEnd; i++) {
+            if (input.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+
+        String host = ascii ? input.substring(hostStart, hostEnd) : toAscii(input.substring(hostStart, hostEnd));
+        return host != null && isValidHostName(host) ? host.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String toAscii(String host) {
+        try {
+            return IDN.toASCII(host);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isValidHostName(String host) {
+        if (host.length() > MAX_HOST_LENGTH) {
+            return false;
+        }
+
+        int labelLength = 0;
+        for (int i = 0; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c == '.') {
+                if (labelLength == 0 || host.charAt(i - 1) == '-') {
+                    return false;
+                }
+                labelLength = 0;
+                continue;
+            }
+
+            boolean letterOrDigit = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9';
+            boolean hyphen = c == '-' && labelLength > 0;
+            labelLength++;
+            if (!letterOrDigit && !hyphen && c != '_' || labelLength > MAX_LABEL_LENGTH) {
+                return false;
+            }
+        }
+
+        return labelLength > 0 && host.charAt(host.length() - 1) != '-';
+    }
+
+    private static String normalizeIpv6(String input, int hostStart, int hostEnd) {
+        if (hostEnd - hostStart < 4) {
+            return null;
+        }
+
+        for (int i = hostStart + 1; i < hostEnd - 1; i++) {
+            char c = input.charAt(i);
+            boolean hex = c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+            if (!hex && c != ':' && c != '.') {
+                return null;
+            }
+        }
+
+        return input.substring(hostStart, hostEnd).toLowerCase(Locale.ROOT);
+    }
+}
@@ -16,4 +16,4 @@ CREATE TABLE IF NOT EXISTS url_checks (
     REFERENCES urls(id)
     ON DELETE CASCADE
     ON UPDATE CASCADE
-);
\ No newline at end of file
+);
@@ -0,0 +1,13 @@
+-- no-transaction
+ALTER TABLE urls ADD COLUMN IF NOT EXISTS last_check_id BIGINT;
+
+CREATE INDEX ${concurrently} IF NOT EXISTS idx_url_checks_url_id_id ON url_checks (url_id, id);
+
+-- batch: urls
+UPDATE urls
+SET last_check_id = (
+    SELECT MAX(url_checks.id)
+    FROM url_checks
+    WHERE url_checks.url_id = urls.id AND url_checks.status = 'FINISHED'
+)
+WHERE last_check_id IS NULL AND id BETWEEN ? AND ?;
@@ -0,0 +1,36 @@
+-- no-transaction
+UPDATE url_checks
+SET url_id = (
+    SELECT MIN(originals.id)
+    FROM urls
+    JOIN urls originals ON originals.name = urls.name
+    WHERE urls.id = url_checks.url_id
+)
+WHERE url_id IN (
+    SELECT urls.id
+    FROM urls
+    JOIN urls originals ON originals.name = urls.name AND originals.id < urls.id
+);
+
+UPDATE urls
+SET last_check_id = (
+    SELECT MAX(url_checks.id)
+    FROM url_checks
+    WHERE url_checks.url_id = urls.id AND url_checks.status = 'FINISHED'
+)
+WHERE EXISTS (
+    SELECT 1
+    FROM urls duplicates
+    WHERE duplicates.name = urls.name AND duplicates.id > urls.id
+);
+
+DELETE FROM urls
+WHERE EXISTS (
+    SELECT 1
+    FROM urls originals
+    WHERE originals.name = urls.name AND originals.id < urls.id
+);
+
+CREATE UNIQUE INDEX ${concurrently} IF NOT EXISTS uq_urls_name ON urls (name);
+
+CREATE INDEX ${concurrently} IF NOT EXISTS idx_url_checks_url_id_created_at ON url_checks (url_id, created_at);
@@ -0,0 +1,3 @@
+ALTER TABLE url_checks ADD COLUMN IF NOT EXISTS etag VARCHAR(255);
+
+ALTER TABLE url_checks ADD COLUMN IF NOT EXISTS last_modified VARCHAR(64);
@@ -0,0 +1,5 @@
+ALTER TABLE url_checks ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+ALTER TABLE url_checks ADD COLUMN IF NOT EXISTS content_check_id BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_url_checks_content_check_id ON url_checks (content_check_id);
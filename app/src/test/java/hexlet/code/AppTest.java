@@ -1,9 +1,15 @@
 package hexlet.code;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hexlet.code.model.CheckStatus;
 import hexlet.code.model.Url;
 import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.BaseRepository;
 import hexlet.code.repository.UrlChecksRepository;
 import hexlet.code.repository.UrlsRepository;
+import hexlet.code.retention.CheckRetentionJob;
+import hexlet.code.retention.RetentionPolicy;
 import hexlet.code.util.NamedRoutes;
 import io.javalin.Javalin;
 import io.javalin.testtools.JavalinTest;
@@ -23,13 +29,19 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.jsoup.nodes.Document;
@@ -39,6 +51,8 @@ public class AppTest {
     private Javalin app;
     private static MockWebServer mockServer;
     private static final String TEST_HTML_FILE_NAME = "index.html";
+    private static final long CHECK_TIMEOUT_MILLIS = 10_000;
+    private static final long CHECK_POLL_INTERVAL_MILLIS = 50;
 
     @BeforeAll
     public static void setUpMockServer() throws IOException {
@@ -100,6 +114,101 @@ public class AppTest {
         });
     }
 
+    @Test
+    public void testUrlsPagePagination() {
+        JavalinTest.test(app, (server, client) -> {
+            for (int i = 1; i <= 3; i++) {
+                UrlsRepository.save(new Url("https://site-" + i + ".example.com"));
+            }
+
+            try (Response response = client.get(NamedRoutes.urlsPath() + "?per=2")) {
+                Document document = Jsoup.parse(response.body().string());
+
+                assertEquals(2, document.select("tbody tr").size());
+                assertTrue(document.text().contains("https://site-3.example.com"));
+                assertTrue(document.text().contains("https://site-2.example.com"));
+
+                String nextPagePath = document.select("a.page-link").last().attr("href");
+
+                try (Response nextResponse = client.get(nextPagePath)) {
+                    Document nextDocument = Jsoup.parse(nextResponse.body().string());
+
+                    assertEquals(1, nextDocument.select("tbody tr").size());
+                    assertTrue(nextDocument.text().contains("https://site-1.example.com"));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testUrlsPageNotModified() {
+        JavalinTest.test(app, (server, client) -> {
+            String etag;
+            try (Response response = client.get(NamedRoutes.urlsPath())) {
+                etag = response.header("ETag");
+                assertEquals(200, response.code());
+            }
+
+            try (Response response = client.get(NamedRoutes.urlsPath(), req -> req.header("If-None-Match", etag))) {
+                assertEquals(304, response.code());
+            }
+
+            UrlsRepository.save(new Url("https://site-1.example.com"));
+
+            try (Response response = client.get(NamedRoutes.urlsPath(), req -> req.header("If-None-Match", etag))) {
+                assertEquals(200, response.code());
+                assertTrue(response.body().string().contains("https://site-1.example.com"));
+            }
+        });
+    }
+
+    @Test
+    public void testUrlsPageStreaming() {
+        JavalinTest.test(app, (server, client) -> {
+            for (int i = 1; i <= 3; i++) {
+                UrlsRepository.save(new Url("https://site-" + i + ".example.com"));
+            }
+
+            try (Response response = client.get(NamedRoutes.urlsStreamPath())) {
+                Document document = Jsoup.parse(response.body().string());
+
+                assertEquals(200, response.code());
+                assertEquals(3, document.select("tbody tr").size());
+                assertTrue(document.text().contains("https://site-1.example.com"));
+            }
+        });
+    }
+
+    @Test
+    public void testExportUrls() {
+        JavalinTest.test(app, (server, client) -> {
+            UrlsRepository.save(new Url("https://site-1.example.com"));
+            UrlsRepository.save(new Url("https://site-2.example.com"));
+
+            try (Response response = client.get(NamedRoutes.urlsExportPath("csv"))) {
+                String[] lines = response.body().string().split("\n");
+
+                assertEquals(200, response.code());
+                assertTrue(response.header("Content-Type").startsWith("text/csv"));
+                assertEquals(3, lines.length);
+                assertTrue(lines[0].startsWith("id,name"));
+                assertTrue(lines[1].contains("https://site-2.example.com"));
+            }
+
+            try (Response response = client.get(NamedRoutes.urlsExportPath("ndjson"))) {
+                String[] lines = response.body().string().split("\n");
+
+                assertEquals(200, response.code());
+                assertEquals(2, lines.length);
+                assertTrue(lines[1].contains("\"name\":\"https://site-1.example.com\""));
+            }
+
+            try (Response response = client.get(NamedRoutes.urlsExportPath("xml"))) {
+                assertEquals(400, response.code());
+            }
+        });
+    }
+
     @Test
     public void testCreateUrlSuccessfully() {
         JavalinTest.test(app, (server, client) -> {
@@ -145,6 +254,19 @@ public class AppTest {
         });
     }
 
+    @Test
+    public void testCreateSameUrlTwice() {
+        JavalinTest.test(app, (server, client) -> {
+            String requestBody = "url=https://ru.hexlet.io/courses";
+
+            client.post(NamedRoutes.urlsPath(), requestBody).close();
+            client.post(NamedRoutes.urlsPath(), "url=https://ru.hexlet.io/projects").close();
+
+            assertEquals(1, UrlsRepository.count());
+            assertTrue(UrlsRepository.existsByName("https://ru.hexlet.io"));
+        });
+    }
+
     @Test
     public void testCreateInvalidUrl() {
         JavalinTest.test(app, (server, client) -> {
@@ -207,6 +329,121 @@ public class AppTest {
         });
     }
 
+    @Test
+    public void testApiUrls() {
+        JavalinTest.test(app, (server, client) -> {
+            ObjectMapper objectMapper = new ObjectMapper();
+            String requestBody = "{\"url\": \"https://Example.com/some/path\"}";
+
+            long id;
+            try (Response response = client.post(NamedRoutes.apiUrlsPath(), requestBody)) {
+                JsonNode body = objectMapper.readTree(response.body().string());
+
+                assertEquals(201, response.code());
+                assertEquals("https://example.com", body.get("name").asText());
+                id = body.get("id").asLong();
+            }
+
+            try (Response response = client.post(NamedRoutes.apiUrlsPath(), requestBody)) {
+                assertEquals(200, response.code());
+                assertNull(response.header("Set-Cookie"));
+            }
+
+            try (Response response = client.get(NamedRoutes.apiUrlsPath())) {
+                JsonNode body = objectMapper.readTree(response.body().string());
+
+                assertEquals(1, body.get("urls").size());
+                assertEquals(id, body.get("urls").get(0).get("id").asLong());
+                assertNull(body.get("nextCursor"));
+            }
+
+            try (Response response = client.get(NamedRoutes.apiUrlChecksPath(id))) {
+                assertEquals(200, response.code());
+                assertEquals("{\"checks\":[]}", response.body().string());
+            }
+
+            try (Response response = client.post(NamedRoutes.apiUrlsPath(), "{\"url\": \"not a url\"}")) {
+                JsonNode body = objectMapper.readTree(response.body().string());
+
+                assertEquals(400, response.code());
+                assertTrue(body.get("message").asText().contains("not a url"));
+            }
+
+            try (Response response = client.get(NamedRoutes.apiUrlPath(id + 1))) {
+                JsonNode body = objectMapper.readTree(response.body().string());
+
+                assertEquals(404, response.code());
+                assertEquals("URL not found", body.get("message").asText());
+            }
+        });
+    }
+
+    @Test
+    public void testImportUrls() throws SQLException {
+        UrlsRepository.save(new Url("https://existing.example.com"));
+        String requestBody = String.join("\n",
+                "\uFEFFurl,comment",
+                "https://One.example.com/page,first",
+                "\"https://one.example.com\",same host",
+                "\"https://three.example.com/x,y\",comma in quotes",
+                "",
+                "https://existing.example.com:443",
+                "not a url",
+                "ftp://files.example.com",
+                "http://two.example.com:8080\r");
+
+        JavalinTest.test(app, (server, client) -> {
+            try (Response response = client.post(NamedRoutes.apiUrlsImportPath(), requestBody)) {
+                JsonNode body = new ObjectMapper().readTree(response.body().string());
+
+                assertEquals(200, response.code());
+                assertEquals(3, body.get("inserted").asLong());
+                assertEquals(2, body.get("duplicates").asLong());
+                assertEquals(2, body.get("invalid").asLong());
+            }
+        });
+
+        assertEquals(4, UrlsRepository.count());
+        assertTrue(UrlsRepository.existsByName("https://one.example.com"));
+        assertTrue(UrlsRepository.existsByName("https://three.example.com"));
+        assertTrue(UrlsRepository.existsByName("http://two.example.com:8080"));
+    }
+
+    @Test
+    public void testCheckRetention() throws SQLException, InterruptedException {
+        Url url = new Url("https://site-1.example.com");
+        UrlsRepository.save(url);
+        for (int i = 0; i < 5; i++) {
+            UrlCheck urlCheck = new UrlCheck(url.getId());
+            urlCheck.setStatusCode(200);
+            UrlChecksRepository.save(urlCheck);
+        }
+        List<UrlCheck> urlChecks = UrlChecksRepository.findChecksByUrlId(url.getId());
+
+        int deleted = CheckRetentionJob.runOnce(new RetentionPolicy(2, Duration.ofDays(30), Duration.ZERO));
+
+        List<UrlCheck> remainingChecks = UrlChecksRepository.findChecksByUrlId(url.getId());
+        assertEquals(2, deleted);
+        assertEquals(List.of(urlChecks.get(0).getId(), urlChecks.get(1).getId(), urlChecks.get(2).getId()),
+                remainingChecks.stream().map(UrlCheck::getId).toList());
+    }
+
+    @Test
+    public void testMetrics() {
+        JavalinTest.test(app, (server, client) -> {
+            client.get(NamedRoutes.urlsPath()).close();
+
+            try (Response response = client.get(NamedRoutes.metricsPath())) {
+                assertEquals(200, response.code());
+
+                String body = response.body().string();
+                assertTrue(body.contains("hikaricp_connections_active"));
+                assertTrue(body.contains("query=\"urls.findOlderThan\""));
+                assertTrue(body.contains("check_queue_size"));
+            }
+        });
+    }
+
     @Test
     public void testCheckUrl() {
         JavalinTest.test(app, (server, client) -> {
@@ -219,9 +456,12 @@ public class AppTest {
                 log.info("Test create url, response status: {}", response.code());
 
                 assertEquals(200, response.code());
+            }
 
-                UrlCheck urlCheck = UrlChecksRepository.findChecksByUrlId(1L).getLast();
+            UrlCheck urlCheck = awaitCompletedCheck(testUrlObj.getId());
+            assertEquals(CheckStatus.FINISHED, urlCheck.getStatus());
 
+            try (Response response = client.get(NamedRoutes.urlPath(testUrlObj.getId()))) {
                 Document document = Jsoup.parse(response.body().string());
                 Elements rows = document.select(
                         String.format("tr:has(td:first-child:matchesOwn(^%d$))", urlCheck.getId())
@@ -238,6 +478,101 @@ public class AppTest {
         });
     }
 
+    @Test
+    public void testCheckUrlNotModified() throws IOException, InterruptedException {
+        try (MockWebServer conditionalServer = new MockWebServer()) {
+            conditionalServer.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setHeader("ETag", "\"v1\"")
+                    .setBody(readFixtures(TEST_HTML_FILE_NAME)));
+            conditionalServer.enqueue(new MockResponse()
+                    .setResponseCode(304)
+                    .setHeader("ETag", "\"v1\""));
+            conditionalServer.start();
+
+            JavalinTest.test(app, (server, client) -> {
+                Url testUrlObj = new Url(conditionalServer.url("/").toString());
+                UrlsRepository.save(testUrlObj);
+
+                client.post(NamedRoutes.urlCheckPath(testUrlObj.getId())).close();
+                UrlCheck firstCheck = awaitCompletedCheck(testUrlObj.getId());
+                assertEquals("\"v1\"", firstCheck.getEtag());
+
+                client.post(NamedRoutes.urlCheckPath(testUrlObj.getId())).close();
+                UrlCheck secondCheck = awaitCompletedCheck(testUrlObj.getId());
+
+                assertTrue(secondCheck.getId() > firstCheck.getId());
+                assertEquals(CheckStatus.FINISHED, secondCheck.getStatus());
+                assertEquals(200, secondCheck.getStatusCode());
+                assertEquals("Test title", secondCheck.getTitle());
+                assertEquals("Test h1", secondCheck.getH1());
+                assertEquals("Test description", secondCheck.getDescription());
+                assertEquals(firstCheck.getContentHash(), secondCheck.getContentHash());
+                assertEquals(firstCheck.getId(), secondCheck.getContentCheckId());
+                assertNull(getStoredTitle(secondCheck.getId()));
+            });
+
+            assertNull(conditionalServer.takeRequest().getHeader("If-None-Match"));
+            assertEquals("\"v1\"", conditionalServer.takeRequest().getHeader("If-None-Match"));
+        }
+    }
+
+    @Test
+    public void testCheckUrlRetryAfter() throws IOException, InterruptedException {
+        try (MockWebServer throttledServer = new MockWebServer()) {
+            throttledServer.enqueue(new MockResponse()
+                    .setResponseCode(429)
+                    .setHeader("Retry-After", "1"));
+            throttledServer.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody(readFixtures(TEST_HTML_FILE_NAME)));
+            throttledServer.start();
+
+            JavalinTest.test(app, (server, client) -> {
+                Url testUrlObj = new Url(throttledServer.url("/").toString());
+                UrlsRepository.save(testUrlObj);
+
+                client.post(NamedRoutes.urlCheckPath(testUrlObj.getId())).close();
+                UrlCheck urlCheck = awaitCompletedCheck(testUrlObj.getId());
+
+                assertEquals(CheckStatus.FINISHED, urlCheck.getStatus());
+                assertEquals(200, urlCheck.getStatusCode());
+                assertEquals("Test title", urlCheck.getTitle());
+            });
+
+            assertEquals(2, throttledServer.getRequestCount());
+        }
+    }
+
+    private static UrlCheck awaitCompletedCheck(Long urlId) throws SQLException, InterruptedException {
+        long deadline = System.currentTimeMillis() + CHECK_TIMEOUT_MILLIS;
+
+        while (System.currentTimeMillis() < deadline) {
+            List<UrlCheck> urlChecks = UrlChecksRepository.findChecksByUrlId(urlId);
+            if (!urlChecks.isEmpty()) {
+                UrlCheck urlCheck = urlChecks.getFirst();
+                if (urlCheck.getStatus() == CheckStatus.FINISHED || urlCheck.getStatus() == CheckStatus.FAILED) {
+                    return urlCheck;
+                }
+            }
+            Thread.sleep(CHECK_POLL_INTERVAL_MILLIS);
+        }
+
+        throw new AssertionError("URL check was not completed in time for URL ID: " + urlId);
+    }
+
+    private static String getStoredTitle(Long urlCheckId) throws SQLException {
+        try (Connection connection = BaseRepository.getDataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(
+                     "SELECT title FROM url_checks WHERE id = ?")) {
+
+            preparedStatement.setLong(1, urlCheckId);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            resultSet.next();
+            return resultSet.getString("title");
+        }
+    }
+
     private static Path getFixturePath(String fileName) {
         return Paths.get("src", "test", "resources", "fixtures", fileName)
                 .toAbsolutePath()
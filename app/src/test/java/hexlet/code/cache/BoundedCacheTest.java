@@ -0,0 +1,84 @@
+package hexlet.code.cache;
+
+import hexlet.code.model.Url;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedCacheTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        BoundedCache<Long, Url> cache = new BoundedCache<>("test", 2, TTL, Url::new);
+        cache.put(1L, new Url("https://one.example.com"), cache.getGeneration());
+        cache.put(2L, new Url("https://two.example.com"), cache.getGeneration());
+
+        assertTrue(cache.get(1L).isPresent());
+        cache.put(3L, new Url("https://three.example.com"), cache.getGeneration());
+
+        assertTrue(cache.get(1L).isPresent());
+        assertFalse(cache.get(2L).isPresent());
+        assertTrue(cache.get(3L).isPresent());
+        assertEquals(1, cache.getStats().evictions());
+        assertEquals(2, cache.getStats().size());
+    }
+
+    @Test
+    public void testEntryExpiresAfterTtl() throws InterruptedException {
+        BoundedCache<Long, Url> cache = new BoundedCache<>("test", 10, Duration.ofMillis(50), Url::new);
+        cache.put(1L, new Url("https://one.example.com"), cache.getGeneration());
+
+        assertTrue(cache.get(1L).isPresent());
+        Thread.sleep(100);
+
+        assertFalse(cache.get(1L).isPresent());
+        assertEquals(1, cache.getStats().expirations());
+        assertEquals(0, cache.getStats().size());
+    }
+
+    @Test
+    public void testInvalidationRemovesEntries() {
+        BoundedCache<Long, Url> cache = new BoundedCache<>("test", 10, TTL, Url::new);
+        cache.put(1L, new Url("https://one.example.com"), cache.getGeneration());
+        cache.put(2L, new Url("https://two.example.com"), cache.getGeneration());
+
+        cache.invalidate(1L);
+        assertFalse(cache.get(1L).isPresent());
+        assertTrue(cache.get(2L).isPresent());
+
+        cache.invalidateAll();
+        assertFalse(cache.get(2L).isPresent());
+    }
+
+    @Test
+    public void testValueLoadedBeforeInvalidationIsNotCached() {
+        BoundedCache<Long, Url> cache = new BoundedCache<>("test", 10, TTL, Url::new);
+
+        long generation = cache.getGeneration();
+        Url staleUrl = new Url("https://stale.example.com");
+        cache.invalidate(1L);
+
+        assertFalse(cache.put(1L, staleUrl, generation));
+        assertFalse(cache.get(1L).isPresent());
+
+        assertTrue(cache.put(1L, new Url("https://fresh.example.com"), cache.getGeneration()));
+        assertEquals("https://fresh.example.com", cache.get(1L).orElseThrow().getName());
+    }
+
+    @Test
+    public void testCachedValueIsNotShared() {
+        BoundedCache<Long, Url> cache = new BoundedCache<>("test", 10, TTL, Url::new);
+        Url url = new Url("https://one.example.com");
+        cache.put(1L, url, cache.getGeneration());
+
+        url.setName("https://changed.example.com");
+        cache.get(1L).orElseThrow().setName("https://changed.example.com");
+
+        assertEquals("https://one.example.com", cache.get(1L).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,152 @@
+package hexlet.code.check;
+
+import hexlet.code.App;
+import hexlet.code.dto.urls.BulkCheckProgress;
+import hexlet.code.model.Url;
+import hexlet.code.repository.BaseRepository;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlsRepository;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkCheckJobTest {
+    private static final int SERVERS = 5;
+    private static final int PER_HOST_CONCURRENCY = 2;
+    private static final long RESPONSE_DELAY_MILLIS = 200;
+    private static final long TIMEOUT_MILLIS = 15_000;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<MockWebServer> servers = new ArrayList<>();
+
+    @BeforeEach
+    public final void setUp() throws SQLException, IOException {
+        App.setupAppEnviroment();
+        App.getApp(true);
+        UrlChecksRepository.removeAll();
+        UrlsRepository.removeAll();
+
+        Dispatcher dispatcher = new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(RESPONSE_DELAY_MILLIS);
+                    return new MockResponse()
+                            .setResponseCode(200)
+                            .setBody("<html><head><title>Test</title></head><body><h1>Test</h1></body></html>");
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+
+        for (int i = 0; i < SERVERS; i++) {
+            MockWebServer server = new MockWebServer();
+            server.setDispatcher(dispatcher);
+            server.start();
+            servers.add(server);
+        }
+    }
+
+    @AfterEach
+    public final void tearDown() throws IOException {
+        for (MockWebServer server : servers) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testProgressAndPerHostLimit() throws SQLException, InterruptedException {
+        // every server listens on localhost, so all their URLs belong to one host
+        for (MockWebServer server : servers) {
+            UrlsRepository.save(new Url("http://localhost:" + server.getPort()));
+        }
+        UrlsRepository.save(new Url("http://127.0.0.1:1"));
+
+        assertTrue(BulkCheckJob.start().isPresent());
+        BulkCheckProgress progress = awaitFinished();
+
+        assertEquals("finished", progress.state());
+        assertEquals(SERVERS + 1, progress.total());
+        assertEquals(SERVERS, progress.done());
+        assertEquals(1, progress.failed());
+        assertEquals(0, progress.remaining());
+        assertTrue(maxInFlight.get() <= PER_HOST_CONCURRENCY, "max in flight: " + maxInFlight.get());
+        assertEquals(SERVERS + 1, countStoredChecks());
+    }
+
+    @Test
+    public void testRateLimitedHostIsDeferred() throws SQLException, InterruptedException, IOException {
+        AtomicInteger pageRequests = new AtomicInteger();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // the first answer asks for a pause longer than a worker may wait for the host
+                if (pageRequests.incrementAndGet() == 1) {
+                    return new MockResponse()
+                            .setResponseCode(429)
+                            .setHeader("Retry-After", "1");
+                }
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .setBody("<html><head><title>Test</title></head><body><h1>Test</h1></body></html>");
+            }
+        });
+        server.start();
+        servers.add(server);
+
+        // a host of its own, so the pause does not hold back checks of the other tests on localhost
+        UrlsRepository.save(new Url("http://127.0.0.1:" + server.getPort()));
+
+        assertTrue(BulkCheckJob.start().isPresent());
+        BulkCheckProgress progress = awaitFinished();
+
+        assertEquals("finished", progress.state());
+        assertEquals(1, progress.done());
+        assertEquals(0, progress.failed());
+        assertEquals(2, pageRequests.get());
+        assertEquals(1, countStoredChecks());
+    }
+
+    private static long countStoredChecks() throws SQLException {
+        try (Connection connection = BaseRepository.getDataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("SELECT COUNT(*) FROM url_checks")) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static BulkCheckProgress awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+
+        while (System.currentTimeMillis() < deadline) {
+            BulkCheckProgress progress = BulkCheckJob.getCurrentProgress().orElseThrow();
+            if (!"running".equals(progress.state())) {
+                return progress;
+            }
+            Thread.sleep(50);
+        }
+
+        throw new AssertionError("Bulk check did not finish in time");
+    }
+}
@@ -0,0 +1,51 @@
+package hexlet.code.check;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CheckFetcherTest {
+
+    @Test
+    public void testSlowBodyIsCutOffAtDeadline() throws IOException {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody("<html><head>" + "<!-- padding -->".repeat(1000) + "</head></html>")
+                    .throttleBody(64, 200, TimeUnit.MILLISECONDS));
+            server.start();
+
+            long startedAt = System.nanoTime();
+            assertThrows(RuntimeException.class,
+                    () -> CheckFetcher.fetch(server.url("/").toString(), Map.of(), Duration.ofSeconds(1)));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+            assertTrue(elapsedMillis < 3_000, "slow body was read for " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    public void testInvalidRedirectLocations() throws IOException {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse()
+                    .setResponseCode(302)
+                    .setHeader("Location", "/bad path%zz"));
+            server.enqueue(new MockResponse()
+                    .setResponseCode(302)
+                    .setHeader("Location", "ftp://files.example.com/"));
+            server.start();
+            String url = server.url("/").toString();
+
+            assertThrows(IllegalStateException.class, () -> CheckFetcher.fetch(url, Map.of()));
+            assertThrows(IllegalStateException.class, () -> CheckFetcher.fetch(url, Map.of()));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package hexlet.code.check;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HostRateLimiterTest {
+    private static final Duration INTERVAL = Duration.ofMillis(100);
+    private static final Duration MAX_WAIT = Duration.ofSeconds(5);
+
+    @Test
+    public void testBurstThenInterval() {
+        HostRateLimiter limiter = new HostRateLimiter(INTERVAL, 3, MAX_WAIT);
+
+        long burstMillis = measureMillis(() -> {
+            for (int i = 0; i < 3; i++) {
+                limiter.acquire("example.com");
+            }
+        });
+        long throttledMillis = measureMillis(() -> limiter.acquire("example.com"));
+
+        assertTrue(burstMillis < 50, "burst took " + burstMillis + " ms");
+        assertTrue(throttledMillis >= 80, "throttled request took " + throttledMillis + " ms");
+    }
+
+    @Test
+    public void testHostsAreLimitedSeparately() {
+        HostRateLimiter limiter = new HostRateLimiter(INTERVAL, 1, MAX_WAIT);
+        limiter.acquire("example.com");
+
+        long otherHostMillis = measureMillis(() -> limiter.acquire("example.org"));
+
+        assertTrue(otherHostMillis < 50, "request to another host took " + otherHostMillis + " ms");
+    }
+
+    @Test
+    public void testPause() {
+        HostRateLimiter limiter = new HostRateLimiter(INTERVAL, 3, MAX_WAIT);
+        limiter.pause("example.com", Duration.ofMillis(200));
+
+        long pausedMillis = measureMillis(() -> limiter.acquire("example.com"));
+
+        assertTrue(pausedMillis >= 180, "paused request took " + pausedMillis + " ms");
+    }
+
+    @Test
+    public void testWaitLongerThanMaxWait() {
+        HostRateLimiter limiter = new HostRateLimiter(INTERVAL, 1, MAX_WAIT);
+        limiter.pause("example.com", Duration.ofMinutes(1));
+
+        HostBusyException exception = assertThrows(HostBusyException.class, () -> limiter.acquire("example.com"));
+        assertTrue(exception.getDelay().toSeconds() >= 59, "delay: " + exception.getDelay());
+    }
+
+    @Test
+    public void testRobotsAreCheckedOncePerHost() {
+        HostRateLimiter limiter = new HostRateLimiter(INTERVAL, 1, MAX_WAIT);
+
+        assertTrue(limiter.markRobotsChecked("example.com"));
+        assertFalse(limiter.markRobotsChecked("example.com"));
+        assertTrue(limiter.markRobotsChecked("example.org"));
+
+        limiter.clearRobotsChecked("example.com");
+        assertTrue(limiter.markRobotsChecked("example.com"));
+    }
+
+    @Test
+    public void testCrawlDelay() {
+        HostRateLimiter limiter = new HostRateLimiter(INTERVAL, 3, MAX_WAIT);
+        limiter.setCrawlDelay("example.com", Duration.ofMillis(200));
+        limiter.acquire("example.com");
+
+        long delayedMillis = measureMillis(() -> limiter.acquire("example.com"));
+
+        assertTrue(delayedMillis >= 180, "request after crawl delay took " + delayedMillis + " ms");
+    }
+
+    private static long measureMillis(Runnable action) {
+        long startedAt = System.nanoTime();
+        action.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
@@ -0,0 +1,120 @@
+package hexlet.code.check;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PageExtractorTest {
+    private static final String HEAD = """
+            <html><head>
+            <title>Page title</title>
+            <meta name="description" content="Page description">
+            </head><body><h1>Page header</h1>
+            """;
+    private static final int MAX_BYTES = 1024;
+    private static final int LARGE_BODY_BYTES = 1024 * 1024;
+
+    @Test
+    public void testBodyLargerThanCapIsTruncated() throws IOException {
+        String html = "<html><body>" + "<p>filler</p>".repeat(1_000) + "<title>Too late</title></body></html>";
+        CountingInputStream body = new CountingInputStream(html.getBytes(StandardCharsets.UTF_8));
+
+        PageContent content = PageExtractor.extract(body, StandardCharsets.UTF_8, MAX_BYTES);
+
+        assertTrue(content.truncated());
+        assertEquals(MAX_BYTES, content.bytesRead());
+        assertEquals("", content.title());
+        // a single byte past the cap is read to tell a longer body from one of exactly the cap
+        assertTrue(body.getCount() <= MAX_BYTES + 1, "read " + body.getCount() + " bytes");
+    }
+
+    @Test
+    public void testBodyOfExactlyCapIsNotTruncated() throws IOException {
+        byte[] html = "<html><head><title>Exact</title></head></html>".getBytes(StandardCharsets.UTF_8);
+
+        PageContent content = PageExtractor.extract(new ByteArrayInputStream(html), StandardCharsets.UTF_8,
+                html.length);
+
+        assertFalse(content.truncated());
+        assertEquals(html.length, content.bytesRead());
+        assertEquals("Exact", content.title());
+    }
+
+    @Test
+    public void testExtractionStopsOnceAllFieldsAreFound() throws IOException {
+        String html = HEAD + "<p>filler</p>".repeat(LARGE_BODY_BYTES / 13) + "</body></html>";
+        CountingInputStream body = new CountingInputStream(html.getBytes(StandardCharsets.UTF_8));
+
+        PageContent content = PageExtractor.extract(body, StandardCharsets.UTF_8, LARGE_BODY_BYTES * 2L);
+
+        assertEquals("Page title", content.title());
+        assertEquals("Page header", content.h1());
+        assertEquals("Page description", content.description());
+        assertFalse(content.truncated());
+        assertTrue(body.getCount() < LARGE_BODY_BYTES / 8, "read " + body.getCount() + " bytes");
+    }
+
+    @Test
+    public void testMissingFieldsAreEmpty() throws IOException {
+        byte[] html = "<html><body><p>No metadata</p></body></html>".getBytes(StandardCharsets.UTF_8);
+
+        PageContent content = PageExtractor.extract(new ByteArrayInputStream(html), StandardCharsets.UTF_8,
+                MAX_BYTES);
+
+        assertEquals("", content.title());
+        assertEquals("", content.h1());
+        assertEquals("", content.description());
+    }
+
+    @Test
+    public void testBodyIsDecodedWithGivenCharset() throws IOException {
+        String html = "<html><head><title>Проверка страниц</title></head><body><h1>Анализатор</h1></body></html>";
+
+        for (Charset charset : new Charset[] {StandardCharsets.UTF_8, Charset.forName("windows-1251")}) {
+            PageContent content = PageExtractor.extract(new ByteArrayInputStream(html.getBytes(charset)), charset,
+                    MAX_BYTES);
+
+            assertEquals("Проверка страниц", content.title(), charset.name());
+            assertEquals("Анализатор", content.h1(), charset.name());
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package hexlet.code.check;
+
+import hexlet.code.App;
+import hexlet.code.model.CheckStatus;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import hexlet.code.repository.UrlChecksRepository;
+import hexlet.code.repository.UrlsRepository;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecheckSchedulerTest {
+    private static final Duration INTERVAL = Duration.ofMillis(300);
+    private static final Duration RETRY_DELAY = Duration.ofMillis(100);
+    private static final Duration DISCOVERY_INTERVAL = Duration.ofMillis(50);
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final AtomicInteger pageRequests = new AtomicInteger();
+    private MockWebServer server;
+    private Url url;
+
+    @BeforeEach
+    public final void setUp() throws SQLException, IOException {
+        App.setupAppEnviroment();
+        App.getApp(true);
+        UrlChecksRepository.removeAll();
+        UrlsRepository.removeAll();
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (!"/robots.txt".equals(request.getPath())) {
+                    pageRequests.incrementAndGet();
+                }
+                return new MockResponse()
+                        .setResponseCode(200)
+                        .setBody("<html><head><title>Test</title></head><body><h1>Test</h1></body></html>");
+            }
+        });
+        server.start();
+
+        url = new Url("http://localhost:" + server.getPort());
+        UrlsRepository.save(url);
+    }
+
+    @AfterEach
+    public final void tearDown() throws IOException {
+        RecheckScheduler.shutdown();
+        server.shutdown();
+    }
+
+    @Test
+    public void testUrlIsRecheckedAfterInterval() throws InterruptedException {
+        RecheckScheduler.start(INTERVAL, Duration.ZERO, RETRY_DELAY, DISCOVERY_INTERVAL);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (pageRequests.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertTrue(pageRequests.get() >= 2, "page requests: " + pageRequests.get());
+    }
+
+    @Test
+    public void testUrlWithUnfinishedCheckIsSkipped() throws SQLException, InterruptedException {
+        UrlCheck pendingCheck = new UrlCheck(url.getId());
+        pendingCheck.setStatus(CheckStatus.PENDING);
+        UrlChecksRepository.save(pendingCheck);
+
+        RecheckScheduler.start(INTERVAL, Duration.ZERO, RETRY_DELAY, DISCOVERY_INTERVAL);
+        Thread.sleep(INTERVAL.multipliedBy(3).toMillis());
+
+        assertEquals(0, pageRequests.get());
+        assertEquals(1, UrlChecksRepository.findChecksByUrlId(url.getId()).size());
+    }
+}
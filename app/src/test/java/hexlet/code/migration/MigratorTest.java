@@ -0,0 +1,98 @@
+package hexlet.code.migration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MigratorTest {
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    public final void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migrator-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    public void testMigrateTwice() throws SQLException, IOException {
+        Migrator.migrate(dataSource);
+        long appliedVersions = queryLong("SELECT COUNT(*) FROM schema_history");
+        String checksums = queryString("SELECT LISTAGG(checksum, ',') WITHIN GROUP (ORDER BY version) "
+                + "FROM schema_history");
+
+        Migrator.migrate(dataSource);
+
+        assertTrue(appliedVersions > 0);
+        assertEquals(appliedVersions, queryLong("SELECT COUNT(*) FROM schema_history"));
+        assertEquals(checksums, queryString("SELECT LISTAGG(checksum, ',') WITHIN GROUP (ORDER BY version) "
+                + "FROM schema_history"));
+        assertEquals(0, queryLong("SELECT COUNT(*) FROM urls"));
+    }
+
+    @Test
+    public void testConcurrentMigrations() throws SQLException {
+        CompletableFuture<Void> first = CompletableFuture.runAsync(this::migrateUnchecked);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(this::migrateUnchecked);
+
+        CompletableFuture.allOf(first, second).join();
+
+        assertEquals(6, queryLong("SELECT COUNT(*) FROM schema_history"));
+        assertEquals(1, queryLong("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE INDEX_NAME = 'UQ_URLS_NAME'"));
+    }
+
+    @Test
+    public void testChangedChecksumIsRejected() throws SQLException, IOException {
+        Migrator.migrate(dataSource);
+        execute("UPDATE schema_history SET checksum = 'changed' WHERE version = 1");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> Migrator.migrate(dataSource));
+
+        assertTrue(exception.getMessage().contains("V1"), exception.getMessage());
+    }
+
+    private void migrateUnchecked() {
+        try {
+            Migrator.migrate(dataSource);
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private String queryString(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package hexlet.code.repository;
+
+import hexlet.code.App;
+import hexlet.code.metrics.AppMetrics;
+import hexlet.code.model.Url;
+import hexlet.code.model.UrlCheck;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UrlChecksWriteBehindTest {
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private Url url;
+
+    @BeforeEach
+    public final void setUp() throws SQLException, IOException {
+        App.setupAppEnviroment();
+        App.getApp(true);
+        UrlChecksRepository.removeAll();
+        UrlsRepository.removeAll();
+
+        url = new Url("https://example.com");
+        UrlsRepository.save(url);
+    }
+
+    @Test
+    public void testResultsAreWrittenInBatches() throws SQLException, InterruptedException {
+        long batchInserts = countQueries("url_checks.saveAll");
+        long singleInserts = countQueries("url_checks.save");
+
+        for (int i = 0; i < 250; i++) {
+            UrlChecksWriteBehind.write(newCheck(url.getId()));
+        }
+
+        assertTrue(UrlChecksWriteBehind.awaitFlushed(UrlChecksWriteBehind.getAcceptedCount(), FLUSH_TIMEOUT));
+        assertEquals(250, countChecks());
+        assertTrue(countQueries("url_checks.saveAll") - batchInserts < 250);
+        assertEquals(singleInserts, countQueries("url_checks.save"));
+    }
+
+    @Test
+    public void testFailedBatchIsWrittenOneByOne() throws SQLException, InterruptedException {
+        long singleInserts = countQueries("url_checks.save");
+
+        UrlChecksWriteBehind.write(newCheck(url.getId()));
+        UrlChecksWriteBehind.write(newCheck(url.getId() + 1_000));
+        UrlChecksWriteBehind.write(newCheck(url.getId()));
+
+        assertTrue(UrlChecksWriteBehind.awaitFlushed(UrlChecksWriteBehind.getAcceptedCount(), FLUSH_TIMEOUT));
+        assertEquals(2, countChecks());
+        assertTrue(countQueries("url_checks.save") > singleInserts);
+    }
+
+    @Test
+    public void testShutdownDrainsBuffer() throws SQLException {
+        try {
+            for (int i = 0; i < 50; i++) {
+                UrlChecksWriteBehind.write(newCheck(url.getId()));
+            }
+            UrlChecksWriteBehind.shutdown();
+
+            assertEquals(0, UrlChecksWriteBehind.getPendingCount());
+            assertEquals(50, countChecks());
+        } finally {
+            UrlChecksWriteBehind.start();
+        }
+    }
+
+    private static UrlCheck newCheck(Long urlId) {
+        UrlCheck urlCheck = new UrlCheck(urlId);
+        urlCheck.setStatusCode(200);
+        urlCheck.setTitle("Title");
+        return urlCheck;
+    }
+
+    private static long countQueries(String query) {
+        return AppMetrics.getRegistry().find("repository.query").tag("query", query).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private static long countChecks() throws SQLException {
+        try (Connection connection = BaseRepository.getDataSource().getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("SELECT COUNT(*) FROM url_checks")) {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package hexlet.code.repository;
+
+import hexlet.code.App;
+import hexlet.code.model.Url;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UrlsRepositoryTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public final void setUp() throws SQLException, IOException {
+        App.setupAppEnviroment();
+        App.getApp(true);
+        UrlChecksRepository.removeAll();
+        UrlsRepository.removeAll();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public final void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentSaveIfAbsent() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            String name = "https://race-" + round + ".example.com";
+            List<Url> urls = new ArrayList<>();
+            List<Boolean> created = runConcurrently(() -> {
+                Url url = new Url(name);
+                synchronized (urls) {
+                    urls.add(url);
+                }
+                return UrlsRepository.saveIfAbsent(url);
+            });
+
+            assertEquals(1, created.stream().filter(Boolean::booleanValue).count(), name);
+            assertEquals(1, urls.stream().map(Url::getId).distinct().count(), name);
+        }
+
+        assertEquals(ROUNDS, UrlsRepository.count());
+    }
+
+    @Test
+    public void testConcurrentSaveAllIfAbsent() throws Exception {
+        Set<String> names = IntStream.range(0, 200)
+                .mapToObj(i -> "https://batch-" + i + ".example.com")
+                .collect(Collectors.toSet());
+
+        List<Integer> inserted = runConcurrently(() -> UrlsRepository.saveAllIfAbsent(names));
+
+        assertEquals(names.size(), inserted.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(names.size(), UrlsRepository.count());
+    }
+
+    private <T> List<T> runConcurrently(Callable<T> task) throws InterruptedException, ExecutionException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,108 @@
+package hexlet.code.util;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UrlNormalizerTest {
+
+    @Property
+    public final void neverThrows(@ForAll String input) {
+        UrlNormalizer.normalize(input);
+        UrlNormalizer.normalize("https://" + input);
+    }
+
+    @Property
+    public final void isIdempotent(@ForAll("urls") String input) {
+        Optional<String> normalized = UrlNormalizer.normalize(input);
+
+        assertTrue(normalized.isPresent());
+        assertEquals(normalized, UrlNormalizer.normalize(normalized.get()));
+    }
+
+    @Property
+    public final void ignoresCaseAndSurroundingWhitespace(@ForAll("urls") String input) {
+        String noisyInput = "  " + input.toUpperCase(Locale.ROOT) + "\t";
+
+        assertEquals(UrlNormalizer.normalize(input), UrlNormalizer.normalize(noisyInput));
+    }
+
+    @Property
+    public final void keepsOnlySchemeHostAndPort(@ForAll("hosts") String host,
+                                                 @ForAll @IntRange(min = 1, max = 65_535) int port) {
+        String expectedPort = port == 443 ? "" : ":" + port;
+
+        assertEquals(Optional.of("https://" + host + expectedPort),
+                UrlNormalizer.normalize("https://user@" + host + ":" + port + "/some/path?q=1#top"));
+    }
+
+    @Property
+    public final void rejectsOtherSchemes(@ForAll("hosts") String host,
+                                          @ForAll("schemes") String scheme) {
+        assertEquals(Optional.empty(), UrlNormalizer.normalize(scheme + "://" + host));
+    }
+
+    @Example
+    public final void stripsDefaultPorts() {
+        assertEquals(Optional.of("http://example.com"), UrlNormalizer.normalize("http://example.com:80/"));
+        assertEquals(Optional.of("https://example.com"), UrlNormalizer.normalize("https://example.com:443"));
+        assertEquals(Optional.of("http://example.com:443"), UrlNormalizer.normalize("http://example.com:443"));
+    }
+
+    @Example
+    public final void convertsInternationalHostsToPunycode() {
+        assertEquals(Optional.of("https://xn--e1afmkfd.xn--p1ai"), UrlNormalizer.normalize("https://Пример.рф/путь"));
+    }
+
+    @Example
+    public final void rejectsInvalidInput() {
+        assertEquals(Optional.empty(), UrlNormalizer.normalize(null));
+        assertEquals(Optional.empty(), UrlNormalizer.normalize("12345"));
+        assertEquals(Optional.empty(), UrlNormalizer.normalize("https://"));
+        assertEquals(Optional.empty(), UrlNormalizer.normalize("https://exa mple.com"));
+        assertEquals(Optional.empty(), UrlNormalizer.normalize("https://-example.com"));
+        assertEquals(Optional.empty(), UrlNormalizer.normalize("https://example.com:65536"));
+        assertEquals(Optional.empty(), UrlNormalizer.normalize("https://example.com:port"));
+    }
+
+    @Provide
+    public final Arbitrary<String> hosts() {
+        Arbitrary<String> label = Arbitraries.strings()
+                .withCharRange('a', 'z')
+                .numeric()
+                .ofMinLength(1)
+                .ofMaxLength(20);
+
+        return label.list().ofMinSize(1).ofMaxSize(4)
+                .map(labels -> String.join(".", labels));
+    }
+
+    @Provide
+    public final Arbitrary<String> urls() {
+        Arbitrary<String> schemes = Arbitraries.of("http", "https");
+        Arbitrary<String> ports = Arbitraries.integers().between(0, 65_535)
+                .map(port -> ":" + port)
+                .injectNull(0.5)
+                .map(port -> port != null ? port : "");
+        Arbitrary<String> paths = Arbitraries.of("", "/", "/courses", "/a/b?c=d", "#anchor");
+
+        return Combinators.combine(schemes, hosts(), ports, paths)
+                .as((scheme, host, port, path) -> scheme + "://" + host + port + path);
+    }
+
+    @Provide
+    public final Arbitrary<String> schemes() {
+        return Arbitraries.of("ftp", "file", "mailto", "javascript", "httpx", "htt", "ws");
+    }
+}